@@ -0,0 +1,93 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.StableBackend;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// the matrix of the backends, each backend being used from a static final field and from an instance field
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar BackendBench
+// the backend "jdk" requires JDK 25, the other backends can be selected with
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar BackendBench -p backend=callsite,varhandle
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BackendBench {
+  // initialized by setup(), after the system property has been set,
+  // so StableBackend.current() selects the backend of the fork
+  static final class StaticHolder {
+    static final Supplier<String> SUPPLIER = StableBackend.current().supplier(() -> "hello ?");
+    static final List<String> LIST = StableBackend.current().list(16, i -> "hello " + i);
+    static final Map<String, String> MAP = StableBackend.current().map(Set.of("foo", "bar", "baz"), key -> key + " ?");
+  }
+
+  @Param({"callsite", "varhandle", "jdk"})
+  public String backend;
+
+  private Supplier<String> supplier;
+  private List<String> list;
+  private Map<String, String> map;
+
+  @Setup
+  public void setup() {
+    System.setProperty(StableBackend.PROPERTY, backend);
+    StaticHolder.SUPPLIER.get();
+    if (!StableBackend.current().name().equals(backend)) {
+      throw new AssertionError("the backend is not " + backend);
+    }
+
+    var instanceBackend = StableBackend.of(backend);
+    supplier = instanceBackend.supplier(() -> "hello ?");
+    list = instanceBackend.list(16, i -> "hello " + i);
+    map = instanceBackend.map(Set.of("foo", "bar", "baz"), key -> key + " ?");
+  }
+
+  @Benchmark
+  public String static_supplier() {
+    return StaticHolder.SUPPLIER.get();
+  }
+
+  @Benchmark
+  public String static_list() {
+    return StaticHolder.LIST.get(3);
+  }
+
+  @Benchmark
+  public String static_map() {
+    return StaticHolder.MAP.get("bar");
+  }
+
+  @Benchmark
+  public String instance_supplier() {
+    return supplier.get();
+  }
+
+  @Benchmark
+  public String instance_list() {
+    return list.get(3);
+  }
+
+  @Benchmark
+  public String instance_map() {
+    return map.get("bar");
+  }
+}
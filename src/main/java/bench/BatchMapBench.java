@@ -0,0 +1,79 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar BatchMapBench
+// simulates a lookup service with a round trip of 200 us per call whatever the number of keys,
+// each operation accesses a key that was never accessed before
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@State(Scope.Benchmark)
+public class BatchMapBench {
+  private static final int KEYS = 1_000_000;
+  private static final long ROUND_TRIP = TimeUnit.MICROSECONDS.toNanos(200);
+
+  @Param({"map", "batch_map"})
+  private String kind;
+
+  private Map<Integer, String> map;
+  private final AtomicInteger next = new AtomicInteger();
+
+  private static void roundTrip() {
+    LockSupport.parkNanos(ROUND_TRIP);
+  }
+
+  private static String lookup(Integer key) {
+    roundTrip();
+    return "value" + key;
+  }
+
+  private static Map<Integer, String> lookupAll(Set<Integer> keys) {
+    roundTrip();
+    return keys.stream().collect(Collectors.toMap(k -> k, k -> "value" + k));
+  }
+
+  // a new map per iteration, so all the accesses are misses
+  @Setup(Level.Iteration)
+  public void setup() {
+    var keys = IntStream.range(0, KEYS).boxed().collect(Collectors.toSet());
+    map = switch (kind) {
+      case "map" -> RemiStableValue.map(keys, BatchMapBench::lookup);
+      case "batch_map" -> RemiStableValue.batchMap(keys, 500, Duration.ofMillis(1), BatchMapBench::lookupAll);
+      default -> throw new AssertionError(kind);
+    };
+    next.set(0);
+  }
+
+  @Benchmark
+  public String get_miss() {
+    return map.get(next.getAndIncrement() % KEYS);
+  }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+import stablevalue.StableSupplier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar DerivedSupplierBench
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DerivedSupplierBench {
+  private record Config(String host, int port, int timeout) {}
+
+  private static Config parse(String text) {
+    var parts = text.split(":");
+    return new Config(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+  }
+
+  private static final Integer TIMEOUT = 30;
+
+  private static final StableSupplier<String> RAW = RemiStableValue.supplier(() -> "localhost:8080:30");
+  private static final StableSupplier<Integer> STABLE = RemiStableValue.supplier(() -> 30);
+
+  // raw text -> config -> timeout -> scaled timeout, 3 derivations
+  private static final StableSupplier<Integer> DERIVED = RAW
+      .map(DerivedSupplierBench::parse)
+      .map(Config::timeout)
+      .zip(RemiStableValue.supplier(() -> 1_000), (timeout, scale) -> timeout * scale);
+
+  // the same derivation recomputed at each access
+  private static final Supplier<Integer> RECOMPUTED = () -> parse(RAW.get()).timeout() * 1_000;
+
+  @Benchmark
+  public Integer constant() {
+    return TIMEOUT;
+  }
+
+  @Benchmark
+  public Integer stable_supplier() {
+    return STABLE.get();
+  }
+
+  @Benchmark
+  public Integer derived_supplier() {
+    return DERIVED.get();
+  }
+
+  @Benchmark
+  public Integer recomputed() {
+    return RECOMPUTED.get();
+  }
+}
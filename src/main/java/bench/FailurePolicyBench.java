@@ -0,0 +1,68 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.FailurePolicy;
+import stablevalue.RemiStableValue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar FailurePolicyBench
+// simulates a dependency that is down, each attempt takes 1 ms before failing,
+// so without a failure policy all the threads run the failing initializer one after the other
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@State(Scope.Benchmark)
+public class FailurePolicyBench {
+  @Param({"none", "retry", "cache_for", "backoff"})
+  private String policy;
+
+  private Supplier<String> supplier;
+
+  private static String failingDependency() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      throw new AssertionError(e);
+    }
+    throw new IllegalStateException("dependency is down");
+  }
+
+  @Setup
+  public void setup() {
+    supplier = switch (policy) {
+      case "none" -> RemiStableValue.supplier(FailurePolicyBench::failingDependency);
+      case "retry" -> RemiStableValue.supplier(FailurePolicyBench::failingDependency, FailurePolicy.retry());
+      case "cache_for" -> RemiStableValue.supplier(FailurePolicyBench::failingDependency, FailurePolicy.cacheFor(Duration.ofMillis(100)));
+      case "backoff" -> RemiStableValue.supplier(FailurePolicyBench::failingDependency, FailurePolicy.backoff(Duration.ofMillis(10), Duration.ofSeconds(1)));
+      default -> throw new AssertionError(policy);
+    };
+  }
+
+  @Benchmark
+  public Object get_failing() {
+    try {
+      return supplier.get();
+    } catch (IllegalStateException e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar HolderSupplierBench -prof comp
+// the deoptimizations can be counted with
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar HolderSupplierBench -jvmArgsAppend -XX:+UnlockDiagnosticVMOptions -jvmArgsAppend -XX:+LogCompilation
+// and grep "uncommon_trap" in the generated hotspot_pid*.log
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class HolderSupplierBench {
+  private static final String STRING = "Am i a constant ?";
+
+  private static final Supplier<String> SUPPLIER = RemiStableValue.supplier(() -> "Am i a constant ?");
+
+  private static final Supplier<String> HOLDER_SUPPLIER = RemiStableValue.holderSupplier(() -> "Am i a constant ?");
+
+  // steady state
+
+  @Benchmark
+  public String string() {
+    return STRING;
+  }
+
+  @Benchmark
+  public String supplier() {
+    return SUPPLIER.get();
+  }
+
+  @Benchmark
+  public String holder_supplier() {
+    return HOLDER_SUPPLIER.get();
+  }
+
+  // first access latency, including the creation of the stable supplier
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String supplier_first_access() {
+    return RemiStableValue.supplier(() -> "Am i a constant ?").get();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String holder_supplier_first_access() {
+    return RemiStableValue.holderSupplier(() -> "Am i a constant ?").get();
+  }
+}
@@ -0,0 +1,69 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Distributions of the indexes used by the benchmarks that access many keys.
+ */
+public enum KeyDistribution {
+  /**
+   * All the indexes are accessed in order.
+   */
+  SEQUENTIAL {
+    @Override
+    public int[] sample(int domain, int length, long seed) {
+      var indexes = new int[length];
+      for(var i = 0; i < length; i++) {
+        indexes[i] = i % domain;
+      }
+      return indexes;
+    }
+  },
+  /**
+   * All the indexes have the same probability to be accessed.
+   */
+  UNIFORM {
+    @Override
+    public int[] sample(int domain, int length, long seed) {
+      var random = new Random(seed);
+      var indexes = new int[length];
+      for(var i = 0; i < length; i++) {
+        indexes[i] = random.nextInt(domain);
+      }
+      return indexes;
+    }
+  },
+  /**
+   * The index {@code k} is accessed with a probability proportional to {@code 1 / (k + 1)},
+   * so a few indexes are hot and the others form a long tail.
+   */
+  ZIPF {
+    @Override
+    public int[] sample(int domain, int length, long seed) {
+      var cumulative = new double[domain];
+      var sum = 0.0;
+      for(var k = 0; k < domain; k++) {
+        sum += 1.0 / (k + 1);
+        cumulative[k] = sum;
+      }
+      var random = new Random(seed);
+      var indexes = new int[length];
+      for(var i = 0; i < length; i++) {
+        var index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+        indexes[i] = Math.min(index < 0 ? -index - 1 : index, domain - 1);
+      }
+      return indexes;
+    }
+  }
+  ;
+
+  /**
+   * {@return an array of {@code length} indexes between 0 and {@code domain} (exclusive)}
+   *
+   * @param domain the number of different indexes
+   * @param length the number of indexes to return
+   * @param seed   the seed of the pseudo random generator
+   */
+  public abstract int[] sample(int domain, int length, long seed);
+}
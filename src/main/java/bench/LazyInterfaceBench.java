@@ -0,0 +1,61 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar LazyInterfaceBench -prof dtraceasm
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class LazyInterfaceBench {
+  public interface Config {
+    String host();
+    int port();
+  }
+
+  private record ConfigRecord(String host, int port) implements Config {}
+
+  private static final Config RECORD = new ConfigRecord("localhost", 8080);
+
+  private static final Map<String, Supplier<?>> SUPPLIERS = Map.of(
+      "host", () -> "localhost",
+      "port", () -> 8080);
+
+  private static final Map<String, Object> STABLE_MAP =
+      RemiStableValue.map(Set.of("host", "port"), key -> SUPPLIERS.get(key).get());
+
+  private static final Config LAZY_INTERFACE = RemiStableValue.lazyInterface(Config.class, SUPPLIERS);
+
+  @Benchmark
+  public int record() {
+    return RECORD.host().length() + RECORD.port();
+  }
+
+  @Benchmark
+  public int stable_map() {
+    return ((String) STABLE_MAP.get("host")).length() + (int) STABLE_MAP.get("port");
+  }
+
+  @Benchmark
+  public int lazy_interface() {
+    return LAZY_INTERFACE.host().length() + LAZY_INTERFACE.port();
+  }
+}
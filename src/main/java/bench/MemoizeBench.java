@@ -0,0 +1,70 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar MemoizeBench -prof dtraceasm
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MemoizeBench {
+  private static final int DOMAIN = 1_024;
+  private static final Integer[] KEYS = IntStream.range(0, DOMAIN).boxed().toArray(Integer[]::new);
+
+  private static final ConcurrentHashMap<Integer, String> CONCURRENT_MAP = new ConcurrentHashMap<>();
+  private static final Function<Integer, String> MEMOIZE = RemiStableValue.memoize(key -> "value " + key);
+
+  @Param({"UNIFORM", "ZIPF"})
+  private KeyDistribution distribution;
+
+  private Integer[] keys;
+  private int index;
+
+  @Setup
+  public void setup() {
+    keys = IntStream.of(distribution.sample(DOMAIN, 4_096, 42))
+        .mapToObj(i -> KEYS[i])
+        .toArray(Integer[]::new);
+  }
+
+  private Integer nextKey() {
+    var index = this.index;
+    this.index = (index + 1) & (keys.length - 1);
+    return keys[index];
+  }
+
+  @Benchmark
+  public String concurrent_map_compute_if_absent() {
+    return CONCURRENT_MAP.computeIfAbsent(nextKey(), key -> "value " + key);
+  }
+
+  @Benchmark
+  public String memoize() {
+    return MEMOIZE.apply(nextKey());
+  }
+
+  @Benchmark
+  public String memoize_hottest_key() {
+    return MEMOIZE.apply(KEYS[0]);
+  }
+}
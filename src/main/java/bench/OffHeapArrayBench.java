@@ -0,0 +1,88 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+import stablevalue.StableArray;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar OffHeapArrayBench -prof gc
+// the on-heap arrays are limited to 2^31 elements, larger sizes only run the off-heap array
+// (an array of 1e10 elements needs ~80 GB of native memory)
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar "OffHeapArrayBench.off_heap" -p size=1000000000,10000000000
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview", "-Xmx4g"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class OffHeapArrayBench {
+  private static final int ACCESSES = 1 << 16;  // power of 2
+
+  @Param({"1000000", "100000000"})
+  private long size;
+
+  private long[] indexes;
+  private long[] heapArray;
+  private List<Long> stableList;
+  private StableArray.OfLong offHeapArray;
+  private int index;
+
+  private static long compute(long index) {
+    return index * 31 + 7;
+  }
+
+  @Setup
+  public void setup() {
+    var random = new SplittableRandom(42);
+    indexes = new long[ACCESSES];
+    for(var i = 0; i < indexes.length; i++) {
+      indexes[i] = random.nextLong(size);
+    }
+    if (size <= Integer.MAX_VALUE - 8) {
+      heapArray = new long[(int) size];
+      for(var i = 0; i < heapArray.length; i++) {
+        heapArray[i] = compute(i);
+      }
+      stableList = RemiStableValue.list((int) size, OffHeapArrayBench::compute);
+    }
+    offHeapArray = RemiStableValue.offHeapLongArray(size, OffHeapArrayBench::compute);
+  }
+
+  private long nextIndex() {
+    var index = this.index;
+    this.index = (index + 1) & (ACCESSES - 1);
+    return indexes[index];
+  }
+
+  // random accesses, the elements are computed during the warmup
+
+  @Benchmark
+  public long heap_array() {
+    return heapArray[(int) nextIndex()];
+  }
+
+  @Benchmark
+  public long heap_stable_list() {
+    return stableList.get((int) nextIndex());
+  }
+
+  @Benchmark
+  public long off_heap_array() {
+    return offHeapArray.getLong(nextIndex());
+  }
+}
@@ -0,0 +1,90 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar PerClassBench
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PerClassBench {
+  private static String name(Class<?> type) {
+    return type.getName();
+  }
+
+  private static final ClassValue<String> CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected String computeValue(Class<?> type) {
+      return name(type);
+    }
+  };
+
+  // one function per benchmark, so each one has its own inline cache
+  private static final Function<Class<?>, String> MONOMORPHIC = RemiStableValue.perClass(PerClassBench::name);
+  private static final Function<Class<?>, String> BIMORPHIC = RemiStableValue.perClass(PerClassBench::name);
+  private static final Function<Class<?>, String> MEGAMORPHIC = RemiStableValue.perClass(PerClassBench::name);
+
+  private final Class<?>[] twoClasses = { String.class, Integer.class };
+  private final Class<?>[] manyClasses = {
+      String.class, Integer.class, Long.class, Double.class, Float.class, Short.class,
+      Byte.class, Character.class, Boolean.class, Object.class, Number.class, CharSequence.class };
+  private int index;
+
+  private Class<?> next(Class<?>[] classes) {
+    var index = this.index;
+    this.index = index + 1 == classes.length ? 0 : index + 1;
+    return classes[index];
+  }
+
+  // a constant class
+
+  @Benchmark
+  public String class_value_constant() {
+    return CLASS_VALUE.get(String.class);
+  }
+
+  @Benchmark
+  public String per_class_constant() {
+    return MONOMORPHIC.apply(String.class);
+  }
+
+  // two classes, the class is not a constant
+
+  @Benchmark
+  public String class_value_bimorphic() {
+    return CLASS_VALUE.get(next(twoClasses));
+  }
+
+  @Benchmark
+  public String per_class_bimorphic() {
+    return BIMORPHIC.apply(next(twoClasses));
+  }
+
+  // more classes than the inline cache
+
+  @Benchmark
+  public String class_value_megamorphic() {
+    return CLASS_VALUE.get(next(manyClasses));
+  }
+
+  @Benchmark
+  public String per_class_megamorphic() {
+    return MEGAMORPHIC.apply(next(manyClasses));
+  }
+}
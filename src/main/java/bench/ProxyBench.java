@@ -0,0 +1,95 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar ProxyBench -prof dtraceasm
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ProxyBench {
+  public interface Service {
+    int compute(int value);
+  }
+
+  private static final class ServiceImpl implements Service {
+    private final int offset;
+
+    private ServiceImpl(int offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public int compute(int value) {
+      return value + offset;
+    }
+  }
+
+  // the usual lazy proxy, a double-checked locking on a volatile field
+  private static final class LazyService implements Service {
+    private final Supplier<? extends Service> supplier;
+    private volatile Service delegate;
+
+    private LazyService(Supplier<? extends Service> supplier) {
+      this.supplier = supplier;
+    }
+
+    private Service delegate() {
+      var delegate = this.delegate;
+      if (delegate == null) {
+        synchronized (this) {
+          delegate = this.delegate;
+          if (delegate == null) {
+            delegate = supplier.get();
+            this.delegate = delegate;
+          }
+        }
+      }
+      return delegate;
+    }
+
+    @Override
+    public int compute(int value) {
+      return delegate().compute(value);
+    }
+  }
+
+  private static final Service EAGER = new ServiceImpl(42);
+
+  private static final Service LAZY = new LazyService(() -> new ServiceImpl(42));
+
+  private static final Service PROXY = RemiStableValue.proxy(Service.class, () -> new ServiceImpl(42));
+
+  private int value = 17;
+
+  @Benchmark
+  public int eager() {
+    return EAGER.compute(value);
+  }
+
+  @Benchmark
+  public int lazy_volatile() {
+    return LAZY.compute(value);
+  }
+
+  @Benchmark
+  public int stable_proxy() {
+    return PROXY.compute(value);
+  }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.QuasiConstant;
+import stablevalue.RemiStableValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar QuasiConstantBench -prof dtraceasm
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class QuasiConstantBench {
+  private static final String STRING = "Am i a constant ?";
+
+  private static volatile String VOLATILE_STRING = "Am i a constant ?";
+
+  private static final AtomicReference<String> ATOMIC_REFERENCE = new AtomicReference<>("Am i a constant ?");
+
+  private static final QuasiConstant<String> QUASI_CONSTANT = RemiStableValue.quasiConstant("Am i a constant ?");
+
+  private static final QuasiConstant<String> UPDATED_QUASI_CONSTANT = RemiStableValue.quasiConstant("Am i a constant ?");
+
+  private int counter;
+
+  @Benchmark
+  public String string() {
+    return STRING;
+  }
+
+  @Benchmark
+  public String volatile_string() {
+    return VOLATILE_STRING;
+  }
+
+  @Benchmark
+  public String atomic_reference() {
+    return ATOMIC_REFERENCE.get();
+  }
+
+  @Benchmark
+  public String quasi_constant() {
+    return QUASI_CONSTANT.get();
+  }
+
+  // the cost of an update, this is expected to be several orders of magnitude slower
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String quasi_constant_update() {
+    UPDATED_QUASI_CONSTANT.update((counter++ & 1) == 0 ? "Am i a constant ?" : "Am i still a constant ?");
+    return UPDATED_QUASI_CONSTANT.get();
+  }
+}
@@ -0,0 +1,86 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.concurrent.TimeUnit;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar RecursiveListBench -prof gc
+// each operation creates a table of 1M entries and asks for the last entry,
+// so all the entries are computed through a chain of dependencies of length 1M
+// (a list returned by RemiStableValue.list with the same mapper throws a StackOverflowError)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview", "-Xmx2g"})
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RecursiveListBench {
+  private static final int SIZE = 1_000_000;
+  private static final long MODULO = 1_000_000_007L;
+
+  // fibonacci modulo a prime, fib(i) = fib(i - 1) + fib(i - 2)
+
+  @Benchmark
+  public long fibonacci_array() {
+    var table = new long[SIZE];
+    table[1] = 1;
+    for(var i = 2; i < SIZE; i++) {
+      table[i] = (table[i - 1] + table[i - 2]) % MODULO;
+    }
+    return table[SIZE - 1];
+  }
+
+  @Benchmark
+  public long fibonacci_recursive_list() {
+    var list = RemiStableValue.<Long>recursiveList(SIZE, (self, i) ->
+        i < 2 ? (long) i : (self.get(i - 1) + self.get(i - 2)) % MODULO);
+    return list.get(SIZE - 1);
+  }
+
+  // minimum number of steps to reach 1, a step being n - 1, n / 2 or n / 3
+
+  @Benchmark
+  public int min_steps_array() {
+    var table = new int[SIZE];
+    for(var i = 2; i < SIZE; i++) {
+      var steps = table[i - 1];
+      if (i % 2 == 0) {
+        steps = Math.min(steps, table[i / 2]);
+      }
+      if (i % 3 == 0) {
+        steps = Math.min(steps, table[i / 3]);
+      }
+      table[i] = steps + 1;
+    }
+    return table[SIZE - 1];
+  }
+
+  @Benchmark
+  public int min_steps_recursive_list() {
+    var list = RemiStableValue.<Integer>recursiveList(SIZE, (self, i) -> {
+      if (i < 2) {
+        return 0;
+      }
+      var steps = self.get(i - 1);
+      if (i % 2 == 0) {
+        steps = Math.min(steps, self.get(i / 2));
+      }
+      if (i % 3 == 0) {
+        steps = Math.min(steps, self.get(i / 3));
+      }
+      return steps + 1;
+    });
+    return list.get(SIZE - 1);
+  }
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.StableSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// time-to-ready of an application that computes an index at startup,
+// COLD has no snapshot file, WARM reads the index from the snapshot saved by a previous run
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar SnapshotStartupBench
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(
+    value = 5,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SnapshotStartupBench {
+  private static final long VERSION = 1;
+
+  @Param({"COLD", "WARM"})
+  private String snapshot;
+
+  private Path path;
+
+  // an expensive computation with a compact result
+  private static int[] buildIndex() {
+    var index = new int[100_000];
+    for(var i = 0; i < index.length; i++) {
+      var hash = i;
+      for(var round = 0; round < 5_000; round++) {
+        hash = Integer.rotateLeft(hash * 0x9E3779B9, 13) ^ round;
+      }
+      index[i] = hash;
+    }
+    return index;
+  }
+
+  @Setup(Level.Trial)
+  public void createSnapshot() throws IOException {
+    path = Files.createTempFile("snapshot", ".bin");
+    Files.delete(path);
+    if (snapshot.equals("WARM")) {
+      var stableSnapshot = StableSnapshot.open(path, VERSION);
+      stableSnapshot.supplier("index", int[].class, SnapshotStartupBench::buildIndex).get();
+      stableSnapshot.save();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteSnapshot() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Benchmark
+  public int time_to_ready() throws IOException {
+    var stableSnapshot = StableSnapshot.open(path, VERSION);
+    var index = stableSnapshot.supplier("index", int[].class, SnapshotStartupBench::buildIndex);
+    return index.get().length;
+  }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// 64 dictionaries of 4 MB are lazily computed in a 512 MB heap while the benchmark allocates,
+// the stable list pins the 256 MB of dictionaries, the soft list releases them under pressure
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar SoftStableListBench -prof gc
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview", "-Xmx512m"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SoftStableListBench {
+  private static final int DICTIONARY_COUNT = 64;
+  private static final int DICTIONARY_SIZE = 1 << 20;
+
+  @Param({"STABLE", "SOFT"})
+  private String kind;
+
+  private List<int[]> dictionaries;
+  private int[] indexes;
+  private int index;
+
+  private static int[] decodeDictionary(int seed) {
+    var dictionary = new int[DICTIONARY_SIZE];
+    for(var i = 0; i < dictionary.length; i++) {
+      dictionary[i] = i * 31 + seed;
+    }
+    return dictionary;
+  }
+
+  @Setup
+  public void setup() {
+    dictionaries = switch (kind) {
+      case "STABLE" -> RemiStableValue.list(DICTIONARY_COUNT, SoftStableListBench::decodeDictionary);
+      case "SOFT" -> RemiStableValue.softList(DICTIONARY_COUNT, SoftStableListBench::decodeDictionary);
+      default -> throw new AssertionError();
+    };
+    indexes = KeyDistribution.ZIPF.sample(DICTIONARY_COUNT, 1_024, 42);
+  }
+
+  @Benchmark
+  public int lookup_under_gc_pressure() {
+    var index = this.index;
+    this.index = (index + 1) & (indexes.length - 1);
+    var dictionary = dictionaries.get(indexes[index]);
+    var garbage = new byte[64 * 1024];
+    return dictionary[index] + garbage.length;
+  }
+}
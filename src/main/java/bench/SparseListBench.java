@@ -0,0 +1,91 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the memory used by a list is reported by gc.alloc.rate.norm of the *_create benchmarks
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar SparseListBench -prof gc
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview", "-Xmx2g"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SparseListBench {
+  private static final int SIZE = 20_000_000;
+  private static final int TOUCHED = SIZE / 100;  // 1% of the elements are accessed
+
+  private static final String VALUE = "value";
+
+  // SEQUENTIAL accesses a contiguous range, UNIFORM touches most of the chunks (worst case for the sparse list)
+  @Param({"SEQUENTIAL", "ZIPF", "UNIFORM"})
+  private KeyDistribution distribution;
+
+  private int[] indexes;
+  private List<String> denseList;
+  private List<String> sparseList;
+  private int index;
+
+  @Setup
+  public void setup() {
+    indexes = distribution.sample(SIZE, TOUCHED, 42);
+    denseList = touch(RemiStableValue.list(SIZE, _ -> VALUE));
+    sparseList = touch(RemiStableValue.sparseList(SIZE, _ -> VALUE));
+  }
+
+  private List<String> touch(List<String> list) {
+    for(var index : indexes) {
+      list.get(index);
+    }
+    return list;
+  }
+
+  private int nextIndex() {
+    var index = this.index;
+    this.index = index + 1 == indexes.length ? 0 : index + 1;
+    return indexes[index];
+  }
+
+  // memory, creates a list and accesses 1% of the elements
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<String> dense_list_create() {
+    return touch(RemiStableValue.list(SIZE, _ -> VALUE));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<String> sparse_list_create() {
+    return touch(RemiStableValue.sparseList(SIZE, _ -> VALUE));
+  }
+
+  // access latency of the computed elements
+
+  @Benchmark
+  public String dense_list_get() {
+    return denseList.get(nextIndex());
+  }
+
+  @Benchmark
+  public String sparse_list_get() {
+    return sparseList.get(nextIndex());
+  }
+}
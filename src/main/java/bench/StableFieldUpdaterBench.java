@@ -0,0 +1,90 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+import stablevalue.StableFieldUpdater;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// the footprint of an object with a lazy field is the gc.alloc.rate.norm of the *_create_and_get benchmarks
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar StableFieldUpdaterBench -prof gc
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StableFieldUpdaterBench {
+  static final class SupplierPayload {
+    private final int id;
+    private final Supplier<String> name = RemiStableValue.supplier(this::computeName);
+
+    SupplierPayload(int id) {
+      this.id = id;
+    }
+
+    private String computeName() {
+      return "payload";
+    }
+
+    String name() {
+      return name.get();
+    }
+  }
+
+  static final class UpdaterPayload {
+    private static final StableFieldUpdater<UpdaterPayload, String> NAME =
+        StableFieldUpdater.of(MethodHandles.lookup(), UpdaterPayload.class, "name", String.class, UpdaterPayload::computeName);
+
+    private final int id;
+    private String name;
+
+    UpdaterPayload(int id) {
+      this.id = id;
+    }
+
+    private String computeName() {
+      return "payload";
+    }
+
+    String name() {
+      return NAME.get(this);
+    }
+  }
+
+  private final SupplierPayload supplierPayload = new SupplierPayload(42);
+  private final UpdaterPayload updaterPayload = new UpdaterPayload(42);
+  private int id;
+
+  @Benchmark
+  public String supplier_create_and_get() {
+    return new SupplierPayload(id++).name();
+  }
+
+  @Benchmark
+  public String updater_create_and_get() {
+    return new UpdaterPayload(id++).name();
+  }
+
+  @Benchmark
+  public String supplier_get() {
+    return supplierPayload.name();
+  }
+
+  @Benchmark
+  public String updater_get() {
+    return updaterPayload.name();
+  }
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+import stablevalue.StableFlag;
+
+import java.util.concurrent.TimeUnit;
+
+// no_trace and stable_flag_disabled should have the same score (the disabled branch costs nothing)
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar StableFlagBench -prof dtraceasm
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StableFlagBench {
+  private static volatile boolean VOLATILE_TRACE_DISABLED = false;
+  private static volatile boolean VOLATILE_TRACE_ENABLED = true;
+
+  private static final StableFlag STABLE_TRACE_DISABLED = RemiStableValue.flag(false);
+  private static final StableFlag STABLE_TRACE_ENABLED = RemiStableValue.flag(true);
+
+  private int value = 42;
+  private int traced;
+
+  private void trace(int value) {
+    traced += value;
+  }
+
+  @Benchmark
+  public int no_trace() {
+    return value * 2;
+  }
+
+  @Benchmark
+  public int volatile_flag_disabled() {
+    if (VOLATILE_TRACE_DISABLED) {
+      trace(value);
+    }
+    return value * 2;
+  }
+
+  @Benchmark
+  public int stable_flag_disabled() {
+    if (STABLE_TRACE_DISABLED.isEnabled()) {
+      trace(value);
+    }
+    return value * 2;
+  }
+
+  @Benchmark
+  public int volatile_flag_enabled() {
+    if (VOLATILE_TRACE_ENABLED) {
+      trace(value);
+    }
+    return value * 2;
+  }
+
+  @Benchmark
+  public int stable_flag_enabled() {
+    if (STABLE_TRACE_ENABLED.isEnabled()) {
+      trace(value);
+    }
+    return value * 2;
+  }
+}
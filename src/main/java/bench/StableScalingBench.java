@@ -0,0 +1,151 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar StableScalingBench -rf csv
+// the full matrix is long to run, a curve can be selected with -p, for example
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar "StableScalingBench.*_latency" -p distribution=UNIFORM -p density=1.0
+//
+// size is the number of elements of the list and keys of the map, density is the fraction
+// of them computed before the measurement, the accesses only touch the computed elements,
+// distribution is the access pattern over the computed elements
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class StableScalingBench {
+  private static final int ACCESSES = 1 << 16;  // power of 2
+
+  @Param({"10", "1000", "100000", "1000000"})
+  private int size;
+
+  @Param({"0.01", "0.1", "1.0"})
+  private double density;
+
+  @Param({"SEQUENTIAL", "UNIFORM", "ZIPF"})
+  private KeyDistribution distribution;
+
+  private int[] indexes;  // the accessed indexes
+  private Integer[] keys;  // the keys of the map, the accesses use the same instances
+  private Object[] array;
+  private List<Integer> list;
+  private Map<Integer, Integer> map;
+
+  @Setup
+  public void setup() {
+    var random = new Random(42);
+    // the computed elements, a random subset of the indexes, in ascending order
+    var permutation = new int[size];
+    for(var i = 0; i < size; i++) {
+      permutation[i] = i;
+    }
+    for(var i = size - 1; i > 0; i--) {
+      var j = random.nextInt(i + 1);
+      var tmp = permutation[i];
+      permutation[i] = permutation[j];
+      permutation[j] = tmp;
+    }
+    var computed = Arrays.copyOf(permutation, Math.max(1, (int) (size * density)));
+    Arrays.sort(computed);
+
+    var sample = distribution.sample(computed.length, ACCESSES, 43);
+    indexes = new int[ACCESSES];
+    for(var i = 0; i < ACCESSES; i++) {
+      indexes[i] = computed[sample[i]];
+    }
+
+    keys = new Integer[size];
+    var keySet = new LinkedHashSet<Integer>();
+    for(var i = 0; i < size; i++) {
+      keys[i] = i;
+      keySet.add(keys[i]);
+    }
+    array = new Object[size];
+    list = RemiStableValue.list(size, index -> index);
+    map = RemiStableValue.map(keySet, key -> key);
+    for(var index : computed) {
+      array[index] = index;
+      list.get(index);
+      map.get(keys[index]);
+    }
+  }
+
+  // the position of a thread in the accessed indexes
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int position;
+
+    @Setup
+    public void setup() {
+      position = (int) (Thread.currentThread().threadId() * 4099) & (ACCESSES - 1);
+    }
+
+    private int next(int[] indexes) {
+      var position = this.position;
+      this.position = (position + 1) & (ACCESSES - 1);
+      return indexes[position];
+    }
+  }
+
+  // per-access latency, one thread
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Object array_latency(Cursor cursor) {
+    return array[cursor.next(indexes)];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Integer list_latency(Cursor cursor) {
+    return list.get(cursor.next(indexes));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Integer map_latency(Cursor cursor) {
+    return map.get(keys[cursor.next(indexes)]);
+  }
+
+  // throughput, several reader threads
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(4)
+  public Integer list_throughput(Cursor cursor) {
+    return list.get(cursor.next(indexes));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(4)
+  public Integer map_throughput(Cursor cursor) {
+    return map.get(keys[cursor.next(indexes)]);
+  }
+}
@@ -0,0 +1,170 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stablevalue.RemiStableValue;
+import stablevalue.StableTable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// $JAVA_HOME/bin/java -jar target/benchmarks.jar StableTableBench -prof dtraceasm
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(
+    value = 1,
+    jvmArgs = {"--enable-preview"})
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StableTableBench {
+  private static final int ROWS = 64;
+  private static final int COLUMNS = 64;
+
+  private static int price(int row, int column) {
+    return row * 31 + column;
+  }
+
+  private static final int[][] ARRAY = new int[ROWS][COLUMNS];
+  static {
+    for(var row = 0; row < ROWS; row++) {
+      for(var column = 0; column < COLUMNS; column++) {
+        ARRAY[row][column] = price(row, column);
+      }
+    }
+  }
+
+  private static final List<List<Integer>> NESTED_LISTS =
+      RemiStableValue.list(ROWS, row -> RemiStableValue.list(COLUMNS, column -> price(row, column)));
+
+  private static final StableTable<Integer> TABLE = RemiStableValue.table(ROWS, COLUMNS, StableTableBench::price);
+
+  private static final StableTable.OfInt INT_TABLE = RemiStableValue.intTable(ROWS, COLUMNS, StableTableBench::price);
+
+  private int[] randomRows;
+  private int[] randomColumns;
+
+  @Setup
+  public void setup() {
+    randomRows = KeyDistribution.UNIFORM.sample(ROWS, 1_024, 42);
+    randomColumns = KeyDistribution.UNIFORM.sample(COLUMNS, 1_024, 43);
+    // initialize all the cells
+    for(var row = 0; row < ROWS; row++) {
+      for(var column = 0; column < COLUMNS; column++) {
+        NESTED_LISTS.get(row).get(column);
+        TABLE.get(row, column);
+        INT_TABLE.getInt(row, column);
+      }
+    }
+  }
+
+  // row-major access
+
+  @Benchmark
+  public int array_row_major() {
+    var sum = 0;
+    for(var row = 0; row < ROWS; row++) {
+      for(var column = 0; column < COLUMNS; column++) {
+        sum += ARRAY[row][column];
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int nested_lists_row_major() {
+    var sum = 0;
+    for(var row = 0; row < ROWS; row++) {
+      var list = NESTED_LISTS.get(row);
+      for(var column = 0; column < COLUMNS; column++) {
+        sum += list.get(column);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int table_row_major() {
+    var sum = 0;
+    for(var row = 0; row < ROWS; row++) {
+      for(var column = 0; column < COLUMNS; column++) {
+        sum += TABLE.get(row, column);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int int_table_row_major() {
+    var sum = 0;
+    for(var row = 0; row < ROWS; row++) {
+      for(var column = 0; column < COLUMNS; column++) {
+        sum += INT_TABLE.getInt(row, column);
+      }
+    }
+    return sum;
+  }
+
+  // random access
+
+  @Benchmark
+  public int array_random() {
+    var sum = 0;
+    for(var i = 0; i < randomRows.length; i++) {
+      sum += ARRAY[randomRows[i]][randomColumns[i]];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int nested_lists_random() {
+    var sum = 0;
+    for(var i = 0; i < randomRows.length; i++) {
+      sum += NESTED_LISTS.get(randomRows[i]).get(randomColumns[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int table_random() {
+    var sum = 0;
+    for(var i = 0; i < randomRows.length; i++) {
+      sum += TABLE.get(randomRows[i], randomColumns[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int int_table_random() {
+    var sum = 0;
+    for(var i = 0; i < randomRows.length; i++) {
+      sum += INT_TABLE.getInt(randomRows[i], randomColumns[i]);
+    }
+    return sum;
+  }
+
+  // constant indices
+
+  @Benchmark
+  public int array_constant() {
+    return ARRAY[3][5];
+  }
+
+  @Benchmark
+  public int table_constant() {
+    return TABLE.get(3, 5);
+  }
+
+  @Benchmark
+  public int int_table_constant() {
+    return INT_TABLE.getInt(3, 5);
+  }
+}
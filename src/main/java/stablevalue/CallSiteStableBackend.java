@@ -0,0 +1,44 @@
+package stablevalue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The backend based on the call sites of {@link RemiStableValue}.
+ *
+ * @see StableBackend#callSite()
+ */
+final class CallSiteStableBackend implements StableBackend {
+  static final CallSiteStableBackend INSTANCE = new CallSiteStableBackend();
+
+  private CallSiteStableBackend() {}
+
+  @Override
+  public String name() {
+    return "callsite";
+  }
+
+  @Override
+  public <T> Supplier<T> supplier(Supplier<? extends T> original) {
+    return RemiStableValue.supplier(original);
+  }
+
+  @Override
+  public <E> List<E> list(int size, IntFunction<? extends E> mapper) {
+    return RemiStableValue.list(size, mapper);
+  }
+
+  @Override
+  public <K, V> Map<K, V> map(Set<K> keys, Function<? super K, ? extends V> mapper) {
+    return RemiStableValue.map(keys, mapper);
+  }
+
+  @Override
+  public String toString() {
+    return "StableBackend[callsite]";
+  }
+}
@@ -0,0 +1,150 @@
+package stablevalue;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The policy applied by a stable value when the computation of a value fails.
+ * <p>
+ * By default, the stable values of {@link RemiStableValue} relay the exception to the
+ * caller and do not record it, so the next caller, or a caller waiting for the end of
+ * the failed computation, runs the computation again.
+ * With a failure policy, the callers waiting for the end of a computation share its result,
+ * the exception is relayed to all of them, and the exception can be recorded for some time
+ * so the computation is not run again until the end of that delay.
+ * A recorded exception is rethrown as is, so the same exception instance can be thrown
+ * in several threads.
+ * <pre>
+ * private static final Supplier&lt;Connection&gt; CONNECTION =
+ *     RemiStableValue.supplier(Database::connect,
+ *                              FailurePolicy.backoff(Duration.ofMillis(100), Duration.ofSeconds(10)));
+ * </pre>
+ *
+ * @see RemiStableValue#supplier(java.util.function.Supplier, FailurePolicy)
+ * @see RemiStableValue#list(int, java.util.function.IntFunction, FailurePolicy)
+ * @see RemiStableValue#map(java.util.Set, java.util.function.Function, FailurePolicy)
+ */
+public final class FailurePolicy {
+  // the default behavior of the stable values, do not share nor record failures
+  static final FailurePolicy NONE = new FailurePolicy(0, 0, false);
+
+  // a recorded failure, failedAt and retryAt are in nanoseconds (System.nanoTime())
+  record Failure(Throwable throwable, long failedAt, long retryAt, int count) {}
+
+  private final long initialDelay;  // in nanoseconds
+  private final long maxDelay;  // in nanoseconds
+  private final boolean shared;
+
+  private FailurePolicy(long initialDelay, long maxDelay, boolean shared) {
+    this.initialDelay = initialDelay;
+    this.maxDelay = maxDelay;
+    this.shared = shared;
+  }
+
+  /**
+   * {@return a policy that runs the computation again on the next access}
+   * The callers waiting for the end of a failed computation share its exception
+   * instead of running the computation again.
+   */
+  public static FailurePolicy retry() {
+    return new FailurePolicy(0, 0, true);
+  }
+
+  /**
+   * {@return a policy that records the exception of a failed computation for a fixed delay}
+   * During the delay, the exception is rethrown without running the computation again.
+   *
+   * @param delay the time during which the exception is recorded
+   * @throws IllegalArgumentException if the delay is negative
+   */
+  public static FailurePolicy cacheFor(Duration delay) {
+    var nanos = toNanos(delay);
+    return new FailurePolicy(nanos, nanos, true);
+  }
+
+  /**
+   * {@return a policy that records the exception of a failed computation for an exponential delay}
+   * The delay starts at {@code initialDelay} and is doubled after each consecutive failure,
+   * up to {@code maxDelay}. During the delay, the exception is rethrown without running
+   * the computation again.
+   *
+   * @param initialDelay the time during which the exception of the first failure is recorded
+   * @param maxDelay     the maximum time during which an exception is recorded
+   * @throws IllegalArgumentException if a delay is negative, if {@code initialDelay} is zero
+   *                                  (doubling it would never back off, use {@link #retry()})
+   *                                  or if {@code maxDelay} is less than {@code initialDelay}
+   */
+  public static FailurePolicy backoff(Duration initialDelay, Duration maxDelay) {
+    var initialNanos = toNanos(initialDelay);
+    var maxNanos = toNanos(maxDelay);
+    if (initialNanos == 0) {
+      throw new IllegalArgumentException("initialDelay is zero");
+    }
+    if (maxNanos < initialNanos) {
+      throw new IllegalArgumentException("maxDelay < initialDelay");
+    }
+    return new FailurePolicy(initialNanos, maxNanos, true);
+  }
+
+  private static long toNanos(Duration delay) {
+    requireNonNull(delay);
+    if (delay.isNegative()) {
+      throw new IllegalArgumentException("negative delay " + delay);
+    }
+    try {
+      return delay.toNanos();
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;  // saturated, ~292 years
+    }
+  }
+
+  /**
+   * {@return true if the recorded failure should be rethrown instead of running the computation}
+   * Called with the lock held.
+   *
+   * @param failure the recorded failure or null
+   * @param arrival the time (System.nanoTime()) at which the caller started to wait for the lock
+   */
+  boolean shouldRethrow(Failure failure, long arrival) {
+    if (failure == null) {
+      return false;
+    }
+    // the failure happened while the caller was waiting or the delay is not elapsed
+    return failure.failedAt - arrival >= 0 || System.nanoTime() - failure.retryAt < 0;
+  }
+
+  /**
+   * {@return the failure to record or null if the failure should not be recorded}
+   * Called with the lock held.
+   *
+   * @param previous  the previously recorded failure or null
+   * @param throwable the exception of the failed computation
+   */
+  Failure fail(Failure previous, Throwable throwable) {
+    if (!shared) {
+      return null;
+    }
+    var count = previous == null ? 1 : previous.count + 1;
+    var delay = initialDelay;
+    for(var i = 1; i < count && delay < maxDelay; i++) {
+      delay = delay > maxDelay / 2 ? maxDelay : delay * 2;
+    }
+    var now = System.nanoTime();
+    return new Failure(throwable, now, now + Math.min(delay, maxDelay), count);
+  }
+
+  @Override
+  public String toString() {
+    if (this == NONE) {
+      return "FailurePolicy[none]";
+    }
+    if (initialDelay == 0 && maxDelay == 0) {
+      return "FailurePolicy[retry]";
+    }
+    if (initialDelay == maxDelay) {
+      return "FailurePolicy[cacheFor " + Duration.ofNanos(initialDelay) + "]";
+    }
+    return "FailurePolicy[backoff " + Duration.ofNanos(initialDelay) + ".." + Duration.ofNanos(maxDelay) + "]";
+  }
+}
@@ -0,0 +1,146 @@
+package stablevalue;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.TypeKind;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.lang.classfile.ClassFile.ACC_FINAL;
+import static java.lang.classfile.ClassFile.ACC_PRIVATE;
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.classfile.ClassFile.ACC_STATIC;
+import static java.lang.classfile.ClassFile.ACC_SYNTHETIC;
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA;
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA_AT;
+import static java.lang.constant.ConstantDescs.CD_MethodHandle;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CLASS_INIT_NAME;
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Generates the hidden classes used by {@link RemiStableValue}.
+ */
+final class HiddenClasses {
+  private HiddenClasses() {
+    throw new AssertionError();
+  }
+
+  private static final Lookup LOOKUP = lookup();
+  private static final ClassDesc CD_Supplier = ClassDesc.of(Supplier.class.getName());
+  private static final ClassDesc CD_Objects = ClassDesc.of("java.util.Objects");
+
+  /**
+   * {@return a method handle of type {@code ()Object} on the static getter of a new hidden class}
+   * <p>
+   * The hidden class is equivalent to
+   * <pre>
+   * final class StableHolder {
+   *   private static final Object VALUE = requireNonNull(supplier.get());
+   *
+   *   static Object get() {
+   *     return VALUE;
+   *   }
+   * }
+   * </pre>
+   * with {@code supplier} being the class data of the hidden class.
+   * The hidden class is not initialized, so the supplier is called when the getter is first
+   * invoked. If the getter is invoked recursively by the supplier, the getter returns null.
+   *
+   * @param supplier the supplier called to initialize the field
+   */
+  static MethodHandle holderGetter(Supplier<?> supplier) {
+    var holder = ClassDesc.of(HiddenClasses.class.getPackageName(), "StableHolder");
+    var bytes = ClassFile.of().build(holder, classBuilder -> classBuilder
+        .withFlags(ACC_FINAL | ACC_SYNTHETIC)
+        .withSuperclass(CD_Object)
+        .withField("VALUE", CD_Object, ACC_PRIVATE | ACC_STATIC | ACC_FINAL)
+        .withMethodBody(CLASS_INIT_NAME, MTD_void, ACC_STATIC, code -> code
+            .ldc(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA, DEFAULT_NAME, CD_Supplier))
+            .invokeinterface(CD_Supplier, "get", MethodTypeDesc.of(CD_Object))
+            .invokestatic(CD_Objects, "requireNonNull", MethodTypeDesc.of(CD_Object, CD_Object))
+            .putstatic(holder, "VALUE", CD_Object)
+            .return_())
+        .withMethodBody("get", MethodTypeDesc.of(CD_Object), ACC_STATIC, code -> code
+            .getstatic(holder, "VALUE", CD_Object)
+            .areturn()));
+    try {
+      var lookup = LOOKUP.defineHiddenClassWithClassData(bytes, supplier, false);
+      return lookup.findStatic(lookup.lookupClass(), "get", methodType(Object.class));
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * {@return a new instance of a new hidden class implementing {@code interfaceType}}
+   * <p>
+   * Each method of {@code methods} is implemented by calling the method handle
+   * at the same index in {@code implementations}, the type of the method handle being
+   * the type of the method (without the receiver).
+   * The hidden class is equivalent to
+   * <pre>
+   * final class StableImplementation implements I {
+   *   public R m(A a, B b) {
+   *     return (R) implementations.get(index).invokeExact(a, b);
+   *   }
+   *   ...
+   * }
+   * </pre>
+   * with {@code implementations} being the class data of the hidden class, so each
+   * method handle is a constant for the JIT.
+   * The hidden class is defined in the package of the lookup class of {@code lookup}.
+   *
+   * @param lookup          a lookup with full privilege access used to define the hidden class
+   * @param interfaceType   an interface accessible from the lookup class
+   * @param methods         the methods to implement
+   * @param implementations the method handles implementing the methods
+   */
+  static Object implementation(Lookup lookup, Class<?> interfaceType, List<Method> methods, List<MethodHandle> implementations) {
+    var implementation = ClassDesc.of(lookup.lookupClass().getPackageName(), "StableImplementation");
+    var bytes = ClassFile.of().build(implementation, classBuilder -> {
+      classBuilder
+          .withFlags(ACC_FINAL | ACC_SYNTHETIC)
+          .withSuperclass(CD_Object)
+          .withInterfaceSymbols(ClassDesc.of(interfaceType.getName()))
+          .withMethodBody(INIT_NAME, MTD_void, ACC_PUBLIC, code -> code
+              .aload(0)
+              .invokespecial(CD_Object, INIT_NAME, MTD_void)
+              .return_());
+      for(var i = 0; i < methods.size(); i++) {
+        var method = methods.get(i);
+        var index = i;
+        var descriptor = methodType(method.getReturnType(), method.getParameterTypes())
+            .describeConstable().orElseThrow();
+        classBuilder.withMethodBody(method.getName(), descriptor, ACC_PUBLIC | ACC_FINAL, code -> {
+          code.ldc(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, CD_MethodHandle, index));
+          var slot = 1;
+          for(var parameterType : method.getParameterTypes()) {
+            var kind = TypeKind.from(parameterType);
+            code.loadLocal(kind, slot);
+            slot += kind.slotSize();
+          }
+          code.invokevirtual(CD_MethodHandle, "invokeExact", descriptor)
+              .return_(TypeKind.from(method.getReturnType()));
+        });
+      }
+    });
+    try {
+      var hiddenLookup = lookup.defineHiddenClassWithClassData(bytes, List.copyOf(implementations), true);
+      return hiddenLookup.findConstructor(hiddenLookup.lookupClass(), methodType(void.class)).invoke();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package stablevalue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The backend delegating to the stable values of the JDK, {@link StableValue}
+ * is a preview API of JDK 25.
+ * <p>
+ * The stable values of the JDK record {@code null} like any other value, so the functions
+ * are wrapped to reject {@code null} like the other backends.
+ *
+ * @see StableBackend#jdk()
+ */
+final class JdkStableBackend implements StableBackend {
+  static final JdkStableBackend INSTANCE = new JdkStableBackend();
+
+  private JdkStableBackend() {}
+
+  @Override
+  public String name() {
+    return "jdk";
+  }
+
+  @Override
+  public <T> Supplier<T> supplier(Supplier<? extends T> original) {
+    requireNonNull(original);
+    return StableValue.supplier(() -> requireNonNull(original.get()));
+  }
+
+  @Override
+  public <E> List<E> list(int size, IntFunction<? extends E> mapper) {
+    requireNonNull(mapper);
+    return StableValue.list(size, index -> requireNonNull(mapper.apply(index)));
+  }
+
+  @Override
+  public <K, V> Map<K, V> map(Set<K> keys, Function<? super K, ? extends V> mapper) {
+    requireNonNull(mapper);
+    return StableValue.map(keys, key -> requireNonNull(mapper.apply(key)));
+  }
+
+  @Override
+  public String toString() {
+    return "StableBackend[jdk]";
+  }
+}
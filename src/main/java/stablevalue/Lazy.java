@@ -0,0 +1,35 @@
+package stablevalue;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static method or a static {@link java.util.function.Supplier} field
+ * whose value should be lazily computed and then constant folded.
+ * <p>
+ * For a class {@code Foo}, the {@link LazyProcessor annotation processor} generates a class
+ * {@code FooLazy} in the same package with one static accessor per annotated member,
+ * each accessor using the holder class idiom, so the value is computed once
+ * in a thread safe way when the accessor is first called and is a constant for the JIT.
+ * <pre>
+ * class Foo {
+ *   &#64;Lazy
+ *   static Database database() {   // FooLazy.database() calls it once
+ *     return new Database();
+ *   }
+ *
+ *   &#64;Lazy
+ *   static final Supplier&lt;Logger&gt; LOGGER = Logger::new;   // FooLazy.logger() calls LOGGER.get() once
+ * }
+ * </pre>
+ * <p>
+ * An annotated method must be static, non-private, with no parameter, no type parameter,
+ * no {@code throws} clause and must return a value. An annotated field must be static,
+ * non-private and its type must be a parameterized {@link java.util.function.Supplier}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.METHOD, ElementType.FIELD})
+public @interface Lazy {
+}
@@ -0,0 +1,195 @@
+package stablevalue;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The annotation processor that generates the accessors of the members annotated with {@link Lazy}.
+ * <p>
+ * For each class {@code Foo} containing annotated members, a class {@code FooLazy} is generated
+ * in the same package (for a nested class {@code Outer.Foo}, the class is {@code Outer_FooLazy}).
+ * For an annotated method, the accessor has the same name as the method,
+ * for an annotated field, the name of the accessor is the name of the field in camel case
+ * ({@code DEFAULT_CONFIG} becomes {@code defaultConfig()}).
+ * Each accessor declares a holder enum whose static final field is initialized
+ * with the value of the annotated member, like the holder class idiom written by hand.
+ */
+@SupportedAnnotationTypes("stablevalue.Lazy")
+public final class LazyProcessor extends AbstractProcessor {
+  private record Accessor(String name, String modifier, String type, String initializer) {}
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    var accessorMap = new LinkedHashMap<TypeElement, List<Accessor>>();
+    for(var element : roundEnv.getElementsAnnotatedWith(Lazy.class)) {
+      var accessor = switch (element.getKind()) {
+        case METHOD -> methodAccessor((ExecutableElement) element);
+        case FIELD -> fieldAccessor((VariableElement) element);
+        default -> null;
+      };
+      if (accessor != null) {
+        accessorMap.computeIfAbsent((TypeElement) element.getEnclosingElement(), _ -> new ArrayList<>()).add(accessor);
+      }
+    }
+    accessorMap.forEach(this::generate);
+    return true;
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private boolean checkModifiers(Element element) {
+    var modifiers = element.getModifiers();
+    if (!modifiers.contains(Modifier.STATIC)) {
+      error(element, "@Lazy member must be static");
+      return false;
+    }
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      error(element, "@Lazy member must not be private");
+      return false;
+    }
+    return true;
+  }
+
+  private static String modifier(Element element) {
+    return element.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+  }
+
+  private Accessor methodAccessor(ExecutableElement method) {
+    if (!checkModifiers(method)) {
+      return null;
+    }
+    if (!method.getParameters().isEmpty() || !method.getTypeParameters().isEmpty()) {
+      error(method, "@Lazy method must have no parameter and no type parameter");
+      return null;
+    }
+    if (!method.getThrownTypes().isEmpty()) {
+      error(method, "@Lazy method must not declare thrown exceptions");
+      return null;
+    }
+    if (method.getReturnType().getKind() == TypeKind.VOID) {
+      error(method, "@Lazy method must return a value");
+      return null;
+    }
+    var owner = (TypeElement) method.getEnclosingElement();
+    return new Accessor(method.getSimpleName().toString(), modifier(method),
+        method.getReturnType().toString(), owner.getQualifiedName() + "." + method.getSimpleName() + "()");
+  }
+
+  private Accessor fieldAccessor(VariableElement field) {
+    if (!checkModifiers(field)) {
+      return null;
+    }
+    var supplierType = supplierType(field.asType());
+    if (supplierType == null) {
+      error(field, "@Lazy field must be a parameterized java.util.function.Supplier");
+      return null;
+    }
+    var owner = (TypeElement) field.getEnclosingElement();
+    return new Accessor(camelCase(field.getSimpleName().toString()), modifier(field),
+        supplierType.toString(), owner.getQualifiedName() + "." + field.getSimpleName() + ".get()");
+  }
+
+  private TypeMirror supplierType(TypeMirror type) {
+    if (!(type instanceof DeclaredType declaredType)
+        || !((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals("java.util.function.Supplier")
+        || declaredType.getTypeArguments().size() != 1) {
+      return null;
+    }
+    var typeArgument = declaredType.getTypeArguments().getFirst();
+    if (typeArgument.getKind() == TypeKind.WILDCARD) {
+      return null;
+    }
+    return typeArgument;
+  }
+
+  static String camelCase(String name) {
+    if (!name.equals(name.toUpperCase())) {  // not a constant name
+      return name;
+    }
+    var builder = new StringBuilder();
+    var upperCase = false;
+    for(var i = 0; i < name.length(); i++) {
+      var c = name.charAt(i);
+      if (c == '_') {
+        upperCase = builder.length() != 0;
+        continue;
+      }
+      builder.append(upperCase ? c : Character.toLowerCase(c));
+      upperCase = false;
+    }
+    return builder.isEmpty() ? name : builder.toString();
+  }
+
+  private static String generatedName(TypeElement type) {
+    var name = type.getSimpleName().toString();
+    for(var enclosing = type.getEnclosingElement(); enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+      name = enclosing.getSimpleName() + "_" + name;
+    }
+    return name + "Lazy";
+  }
+
+  private void generate(TypeElement type, List<Accessor> accessors) {
+    var names = new HashSet<String>();
+    for(var accessor : accessors) {
+      if (!names.add(accessor.name)) {
+        error(type, "@Lazy accessor " + accessor.name + " is defined twice");
+        return;
+      }
+    }
+    var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    var className = generatedName(type);
+    var isPublic = accessors.stream().anyMatch(accessor -> !accessor.modifier.isEmpty());
+    var builder = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      builder.append("package ").append(packageName).append(";\n\n");
+    }
+    builder.append("// generated by ").append(LazyProcessor.class.getName()).append(", do not edit\n")
+        .append(isPublic ? "public " : "").append("final class ").append(className).append(" {\n")
+        .append("  private ").append(className).append("() {\n")
+        .append("    throw new AssertionError();\n")
+        .append("  }\n");
+    for(var accessor : accessors) {
+      builder.append("\n")
+          .append("  ").append(accessor.modifier).append("static ").append(accessor.type).append(" ").append(accessor.name).append("() {\n")
+          .append("    enum Holder {\n")
+          .append("      ;\n")
+          .append("      private static final ").append(accessor.type).append(" VALUE = ").append(accessor.initializer).append(";\n")
+          .append("    }\n")
+          .append("    return Holder.VALUE;\n")
+          .append("  }\n");
+    }
+    builder.append("}\n");
+
+    var qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+    try(var writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+      writer.write(builder.toString());
+    } catch (IOException e) {
+      error(type, "can not generate " + qualifiedName + ": " + e.getMessage());
+    }
+  }
+}
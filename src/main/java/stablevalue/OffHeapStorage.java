@@ -0,0 +1,130 @@
+package stablevalue;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * The off-heap storage of the stable arrays of {@link RemiStableValue}.
+ * <p>
+ * The elements are stored in a segment allocated by an automatic arena, so the memory is
+ * freed when the storage is not reachable anymore. The segment is allocated and zeroed
+ * upfront, so creating a storage costs its whole memory even if few elements are accessed.
+ * An element is initialized at most once, a bit of the {@code done} bitmap being set with
+ * a release write when the element is written. The bitmap is stored off-heap too,
+ * the slow path is protected by striped locks, an element is computed without holding
+ * the lock of its stripe, so computing elements of different stripes can depend on each other.
+ * The initializer is released once all the elements are initialized.
+ */
+final class OffHeapStorage {
+  private static final VarHandle WORD = JAVA_LONG.varHandle();  // (MemorySegment, long offset)
+  private static final VarHandle REMAINING;
+  static {
+    try {
+      REMAINING = MethodHandles.lookup().findVarHandle(OffHeapStorage.class, "remaining", long.class);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+  private static final int STRIPES = 64;  // power of 2
+
+  // computes the element at index and writes it in values
+  @FunctionalInterface
+  interface Initializer {
+    void initialize(MemorySegment values, long index);
+  }
+
+  private final MemorySegment values;
+  private final MemorySegment done;  // a bit per element, set when the element is initialized
+  private final Stripe[] stripes;  // the stripe of a word of the bitmap is stripes[word % STRIPES]
+  private volatile Initializer initializer;  // null once all the elements are initialized
+  private long remaining;  // the number of elements to initialize, updated with REMAINING
+
+  // the lock of the words of a stripe and the elements of the stripe being computed
+  private static final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition computed = lock.newCondition();  // signaled when a computation ends
+    private final HashMap<Long, Thread> computingThreads = new HashMap<>();  // index -> thread, guarded by the lock
+  }
+
+  OffHeapStorage(ValueLayout layout, long size, Initializer initializer) {
+    var arena = Arena.ofAuto();
+    var words = (size + 63) >>> 6;
+    values = arena.allocate(layout, size);
+    done = arena.allocate(JAVA_LONG, words);
+    stripes = new Stripe[STRIPES];
+    for(var i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+    this.initializer = initializer;
+    remaining = size;
+  }
+
+  MemorySegment values() {
+    return values;
+  }
+
+  // acquire read of the done bitmap
+  boolean isDone(long index) {
+    var word = (long) WORD.getAcquire(done, (index >>> 6) << 3);
+    return (word & (1L << index)) != 0;
+  }
+
+  /**
+   * Initializes the element at {@code index} with the initializer if it is not already
+   * initialized. The initializer computes and writes the element in {@link #values()}.
+   * If another thread is initializing the element, waits until it is done.
+   */
+  void initialize(long index) {
+    var offset = (index >>> 6) << 3;
+    var bit = 1L << index;
+    var stripe = stripes[(int) (index >>> 6) & (STRIPES - 1)];
+    var lock = stripe.lock;
+    lock.lock();
+    try {
+      for(;;) {
+        if (((long) WORD.get(done, offset) & bit) != 0) {
+          return;
+        }
+        var computingThread = stripe.computingThreads.get(index);
+        if (computingThread == null) {
+          break;
+        }
+        if (computingThread == Thread.currentThread()) {
+          throw new IllegalStateException("cyclic definition");
+        }
+        stripe.computed.awaitUninterruptibly();
+      }
+      stripe.computingThreads.put(index, Thread.currentThread());
+    } finally {
+      lock.unlock();
+    }
+    var initialized = false;
+    try {
+      // not null, the element is not initialized so remaining is not zero
+      initializer.initialize(values, index);
+      initialized = true;
+    } finally {
+      lock.lock();
+      try {
+        stripe.computingThreads.remove(index);
+        if (initialized) {
+          WORD.setRelease(done, offset, (long) WORD.get(done, offset) | bit);
+        }
+        stripe.computed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+    if ((long) REMAINING.getAndAdd(this, -1L) == 1) {
+      initializer = null;  // let the GC collect what the initializer captures
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package stablevalue;
+
+import java.util.function.Supplier;
+
+/**
+ * A value that is read far more often than it is updated.
+ * <p>
+ * Reading the value via {@link #get()} is as fast as reading a constant when the
+ * quasi constant is itself stored in a {@code static final} field, updating the value
+ * via {@link #update(Object)} is slow because it invalidates all the code that
+ * depends on the previous value.
+ *
+ * @param <T> the type of the value
+ * @see RemiStableValue#quasiConstant(Object)
+ */
+public interface QuasiConstant<T> extends Supplier<T> {
+  /**
+   * {@return the current value}
+   */
+  @Override
+  T get();
+
+  /**
+   * Replaces the current value by {@code newValue}.
+   * Once this method returns, all threads see the new value.
+   *
+   * @param newValue the new value
+   * @throws NullPointerException if {@code newValue} is null
+   */
+  void update(T newValue);
+}
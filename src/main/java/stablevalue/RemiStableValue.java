@@ -1,18 +1,38 @@
 package stablevalue;
 
+import java.lang.foreign.MemorySegment;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Cleaner;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
 import java.util.function.IntFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
 
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 import static java.lang.invoke.MethodHandles.*;
 import static java.lang.invoke.MethodType.methodType;
 import static java.util.Objects.checkIndex;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toMap;
 
 public final class RemiStableValue {
   private RemiStableValue() {
@@ -37,60 +57,504 @@ public final class RemiStableValue {
    * <p>
    * If the provided {@code original} supplier recursively calls the returned
    * supplier, an {@linkplain IllegalStateException} will be thrown.
+   * <p>
+   * The returned supplier also provides a non-blocking {@link StableSupplier#tryGet()}
+   * and a time-bounded {@link StableSupplier#get(Duration)}.
    *
    * @param original supplier used to compute a cached value
    * @param <T>      the type of results supplied by the returned supplier
    */
-  @SuppressWarnings("unchecked")
-  public static <T> Supplier<T> supplier(Supplier<? extends T> original) {
+  public static <T> StableSupplier<T> supplier(Supplier<? extends T> original) {
+    return supplier(original, FailurePolicy.NONE);
+  }
+
+  /**
+   * {@return a new stable supplier that applies a failure policy}
+   * <p>
+   * The returned {@linkplain Supplier supplier} behaves like the one returned by
+   * {@link #supplier(Supplier)} but if the provided {@code original} supplier throws
+   * an exception, the threads waiting for the value share the exception and the exception
+   * is recorded as specified by the provided {@code failurePolicy}.
+   *
+   * @param original      supplier used to compute a cached value
+   * @param failurePolicy the policy applied when {@code original} throws an exception
+   * @param <T>           the type of results supplied by the returned supplier
+   */
+  public static <T> StableSupplier<T> supplier(Supplier<? extends T> original, FailurePolicy failurePolicy) {
+    requireNonNull(original);
+    requireNonNull(failurePolicy);
+    // a record so the method handle is a constant for the JIT
+    record StableSupplierImpl<T>(MethodHandle mh, StableValueCache cache) implements StableSupplier<T> {
+      @Override
+      @SuppressWarnings("unchecked")
+      public T get() {
+        try {
+          return (T) mh.invokeExact();
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Optional<T> tryGet() {
+        return Optional.ofNullable((T) cache.tryGet());
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T get(Duration timeout) throws InterruptedException, TimeoutException {
+        var nanos = NANOSECONDS.convert(timeout);
+        try {
+          return (T) cache.get(nanos);
+        } catch (InterruptedException | TimeoutException | RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      }
+    }
+    var cache = new StableValueCache(original, failurePolicy);
+    return new StableSupplierImpl<>(cache.dynamicInvoker(), cache);
+  }
+
+  // the call site of a stable supplier, calls original once and then returns a constant
+  private static final class StableValueCache extends MutableCallSite {
+    private static final MethodHandle FALLBACK;
+    static {
+      try {
+        FALLBACK = lookup().findVirtual(StableValueCache.class, "fallback", methodType(Object.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    private Supplier<?> original;  // guarded by the lock, null once the value is computed
+    private final FailurePolicy failurePolicy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Object value;  // null, a Failure or the value, written with the lock held
+
+    private StableValueCache(Supplier<?> original, FailurePolicy failurePolicy) {
+      super(methodType(Object.class));
+      this.original = original;
+      this.failurePolicy = failurePolicy;
+      setTarget(FALLBACK.bindTo(this));
+    }
+
+    private Object fallback() throws Throwable {
+      if (lock.isHeldByCurrentThread()) {
+        throw new IllegalStateException("cyclic definition");
+      }
+      var arrival = System.nanoTime();
+      Object value;
+      lock.lock();
+      try {
+        value = compute(arrival);
+      } finally {
+        lock.unlock();
+      }
+      var target = constant(Object.class, value);
+      setTarget(target);  // this part is racy but we do not care
+      return value;
+    }
+
+    private Object tryGet() {
+      var value = this.value;  // volatile read
+      return value instanceof FailurePolicy.Failure ? null : value;
+    }
+
+    private Object get(long timeout) throws Throwable {
+      var value = this.value;  // volatile read
+      if (value != null && !(value instanceof FailurePolicy.Failure)) {
+        return value;
+      }
+      if (lock.isHeldByCurrentThread()) {
+        throw new IllegalStateException("cyclic definition");
+      }
+      var arrival = System.nanoTime();
+      if (!lock.tryLock(timeout, NANOSECONDS)) {
+        throw new TimeoutException();
+      }
+      try {
+        value = compute(arrival);
+      } finally {
+        lock.unlock();
+      }
+      var target = constant(Object.class, value);
+      setTarget(target);  // this part is racy but we do not care
+      return value;
+    }
+
+    // called with the lock held
+    private Object compute(long arrival) throws Throwable {
+      var value = this.value;
+      if (value != null && !(value instanceof FailurePolicy.Failure)) {
+        return value;
+      }
+      var failure = (FailurePolicy.Failure) value;
+      if (failurePolicy.shouldRethrow(failure, arrival)) {
+        throw failure.throwable();
+      }
+      try {
+        value = requireNonNull(original.get());
+      } catch (Throwable e) {
+        this.value = failurePolicy.fail(failure, e);
+        throw e;
+      }
+      this.value = value;
+      original = null;  // let the GC collect what the supplier captures
+      return value;
+    }
+  }
+
+  /**
+   * {@return a new stable supplier backed by a hidden holder class}
+   * <p>
+   * The returned {@linkplain StableSupplier supplier} behaves like the one returned by
+   * {@link #supplier(Supplier)} but the value is stored in a {@code static final} field of
+   * a hidden class initialized when the value is first accessed, like with
+   * the holder class idiom. The call site is not changed when the value is computed,
+   * so the compiled code is not deoptimized (apart from the class initialization barrier
+   * if the code is compiled before the first access).
+   * <p>
+   * The provided {@code original} supplier is guaranteed to be successfully invoked
+   * at most once even in a multi-threaded environment. Competing threads invoking the
+   * returned supplier's {@linkplain Supplier#get() get()} method when a value is
+   * already under computation will block until a value is computed or an exception is
+   * thrown by the computing thread.
+   * <p>
+   * If the provided {@code original} supplier throws an exception, it is relayed
+   * to the initial caller and no content is recorded, the next access defines a new
+   * hidden class.
+   * <p>
+   * If the provided {@code original} supplier recursively calls the returned
+   * supplier, an {@linkplain IllegalStateException} will be thrown.
+   * <p>
+   * The returned supplier also provides a non-blocking {@link StableSupplier#tryGet()}
+   * and a time-bounded {@link StableSupplier#get(Duration)}, the latter computes the value
+   * without initializing the hidden class, which is initialized by the next call to
+   * {@linkplain Supplier#get() get()}.
+   *
+   * @param original supplier used to compute a cached value
+   * @param <T>      the type of results supplied by the returned supplier
+   */
+  public static <T> StableSupplier<T> holderSupplier(Supplier<? extends T> original) {
     requireNonNull(original);
-    class StableValueCache extends MutableCallSite {
-      private static final MethodHandle FALLBACK;
+    // the holder class calls initialize() from its static initializer
+    final class StableHolderCache extends MutableCallSite {
+      private static final MethodHandle FAILURE;
       static {
         try {
-          FALLBACK = lookup().findVirtual(StableValueCache.class, "fallback", methodType(Object.class));
+          FAILURE = lookup().findVirtual(StableHolderCache.class, "failure", methodType(Object.class, MethodHandle.class, Throwable.class));
         } catch (NoSuchMethodException | IllegalAccessException e) {
           throw new AssertionError(e);
         }
       }
 
-      private T value;
+      private Supplier<?> original;  // guarded by the lock, null once the value is computed
+      private MethodHandle getter;  // guarded by the lock
+      private final ReentrantLock lock = new ReentrantLock();
+      private volatile Object value;  // written with the lock held
 
-      public StableValueCache() {
+      private StableHolderCache(Supplier<?> original) {
         super(methodType(Object.class));
-        setTarget(FALLBACK.bindTo(this));
+        this.original = original;
+        link(HiddenClasses.holderGetter(this::initialize));
       }
 
-      private Object fallback() {
-        if (Thread.holdsLock(this)) {
+      private void link(MethodHandle getter) {
+        this.getter = getter;
+        setTarget(catchException(getter, Throwable.class, insertArguments(FAILURE, 0, this, getter)));
+      }
+
+      private Object failure(MethodHandle failedGetter, Throwable throwable) throws Throwable {
+        lock.lock();
+        try {
+          if (getter == failedGetter) {  // the initialization of the holder class has failed
+            link(HiddenClasses.holderGetter(this::initialize));
+          }
+        } finally {
+          lock.unlock();
+        }
+        if (throwable instanceof ExceptionInInitializerError error) {
+          throw error.getCause();  // relay the exception of the supplier
+        }
+        if (throwable instanceof NoClassDefFoundError) {  // failed in another thread, try again
+          return dynamicInvoker().invokeExact();
+        }
+        throw throwable;
+      }
+
+      // called by the static initializer of the holder class
+      private Object initialize() {
+        if (lock.isHeldByCurrentThread()) {
           throw new IllegalStateException("cyclic definition");
         }
-        T value;
-        synchronized (this) {
-          value = this.value;  // synchronized read
-          if (value == null) {
-            value = requireNonNull(original.get());
-            this.value = value;   // synchronized write
-          }
+        lock.lock();
+        try {
+          return compute();
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      // does not initialize the holder class, another thread may be initializing it
+      // and waiting for the lock
+      private Object get(long timeout) throws InterruptedException, TimeoutException {
+        var value = this.value;  // volatile read
+        if (value != null) {
+          return value;
+        }
+        if (lock.isHeldByCurrentThread()) {
+          throw new IllegalStateException("cyclic definition");
         }
-        var target = constant(Object.class, value);
-        setTarget(target);  // this part is racy but we do not care
+        if (!lock.tryLock(timeout, NANOSECONDS)) {
+          throw new TimeoutException();
+        }
+        try {
+          return compute();
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      // called with the lock held
+      private Object compute() {
+        var value = this.value;
+        if (value != null) {
+          return value;
+        }
+        value = requireNonNull(original.get());
+        this.value = value;
+        original = null;  // let the GC collect what the supplier captures
         return value;
       }
     }
-    var mh = new StableValueCache().dynamicInvoker();
-    return () -> {
+    // a record so the method handle is a constant for the JIT
+    record StableHolderSupplier<T>(MethodHandle mh, StableHolderCache cache) implements StableSupplier<T> {
+      @Override
+      @SuppressWarnings("unchecked")
+      public T get() {
+        Object value;
+        try {
+          value = mh.invokeExact();
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+        if (value == null) {  // the holder class is under initialization by the current thread
+          throw new IllegalStateException("cyclic definition");
+        }
+        return (T) value;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Optional<T> tryGet() {
+        return Optional.ofNullable((T) cache.value);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T get(Duration timeout) throws InterruptedException, TimeoutException {
+        return (T) cache.get(NANOSECONDS.convert(timeout));
+      }
+    }
+    var cache = new StableHolderCache(original);
+    return new StableHolderSupplier<>(cache.dynamicInvoker(), cache);
+  }
+
+  /**
+   * {@return a new implementation of the interface {@code type} with lazily computed accessors}
+   * <p>
+   * Each abstract method of the interface must be an accessor, a method with no parameter
+   * that returns a value. The value returned by an accessor is computed by the supplier
+   * of {@code suppliers} associated with the name of the accessor when the accessor is
+   * first called. Each accessor behaves like a {@linkplain #supplier(Supplier) stable supplier},
+   * so once computed, the value of an accessor is a constant for the JIT.
+   * <pre>
+   * public interface Config {
+   *   String host();
+   *   int port();
+   * }
+   * ...
+   * private static final Config CONFIG = RemiStableValue.lazyInterface(Config.class, Map.of(
+   *     "host", () -&gt; loadHost(),
+   *     "port", () -&gt; loadPort()));
+   * </pre>
+   * <p>
+   * The default methods of the interface are not overridden.
+   * The methods {@code equals}, {@code hashCode} and {@code toString} are the ones
+   * of {@link Object}.
+   * <p>
+   * A supplier is guaranteed to be successfully invoked at most once even in a
+   * multi-threaded environment. If a supplier throws an exception, it is relayed
+   * to the caller of the accessor and no value is recorded.
+   * If a supplier recursively calls its own accessor, an {@linkplain IllegalStateException}
+   * will be thrown. If the value computed by a supplier can not be converted to the return type
+   * of the accessor, a {@linkplain ClassCastException} or a
+   * {@linkplain NullPointerException} will be thrown.
+   *
+   * @param type      a public interface
+   * @param suppliers the suppliers used to compute the values of the accessors, by name
+   * @param <I>       the type of the interface
+   * @throws IllegalArgumentException if {@code type} is not a public interface visible from
+   *                                  the class loader of this class, if an abstract method
+   *                                  is not an accessor or if the names of the suppliers
+   *                                  are not the names of the accessors
+   * @see #lazyInterface(Lookup, Class, Map)
+   */
+  public static <I> I lazyInterface(Class<I> type, Map<String, ? extends Supplier<?>> suppliers) {
+    requireNonNull(type);
+    requireNonNull(suppliers);
+    checkPublicInterface(type);
+    return lazyInterface(lookup(), type, implementableMethods(type, true), suppliers);
+  }
+
+  /**
+   * {@return a new implementation of the interface {@code type} with lazily computed accessors,
+   * defined in the package of the lookup class of {@code lookup}}
+   * <p>
+   * Behaves like {@link #lazyInterface(Class, Map)} but the implementation is a hidden class
+   * {@linkplain Lookup#defineHiddenClass(byte[], boolean, Lookup.ClassOption...) defined}
+   * by the provided {@code lookup}, so the interface only has to be accessible from
+   * the lookup class, it can be package-private or in a package that is not exported
+   * by its module.
+   * <pre>
+   * interface Config {
+   *   String host();
+   * }
+   * ...
+   * private static final Config CONFIG = RemiStableValue.lazyInterface(MethodHandles.lookup(), Config.class,
+   *     Map.of("host", () -&gt; loadHost()));
+   * </pre>
+   *
+   * @param lookup    a lookup with {@linkplain Lookup#hasFullPrivilegeAccess() full privilege access}
+   * @param type      an interface accessible from the lookup class
+   * @param suppliers the suppliers used to compute the values of the accessors, by name
+   * @param <I>       the type of the interface
+   * @throws IllegalArgumentException if {@code lookup} does not have full privilege access,
+   *                                  if {@code type} is not an interface accessible from
+   *                                  the lookup class, if an abstract method
+   *                                  is not an accessor or if the names of the suppliers
+   *                                  are not the names of the accessors
+   */
+  public static <I> I lazyInterface(Lookup lookup, Class<I> type, Map<String, ? extends Supplier<?>> suppliers) {
+    requireNonNull(lookup);
+    requireNonNull(type);
+    requireNonNull(suppliers);
+    if (!lookup.hasFullPrivilegeAccess()) {
+      throw new IllegalArgumentException(lookup + " does not have full privilege access");
+    }
+    if (!type.isInterface()) {
+      throw new IllegalArgumentException(type.getName() + " is not an interface");
+    }
+    try {
+      lookup.accessClass(type);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(type.getName() + " is not accessible from " + lookup, e);
+    }
+    return lazyInterface(lookup, type, implementableMethods(type, true), suppliers);
+  }
+
+  private static <I> I lazyInterface(Lookup lookup, Class<I> type, List<Method> methods, Map<String, ? extends Supplier<?>> suppliers) {
+    var invokers = new HashMap<String, MethodHandle>();
+    var implementations = new ArrayList<MethodHandle>();
+    for(var method : methods) {
+      if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+        throw new IllegalArgumentException("method " + method + " is not an accessor");
+      }
+      var invoker = invokers.computeIfAbsent(method.getName(), name -> {
+        var supplier = suppliers.get(name);
+        if (supplier == null) {
+          throw new IllegalArgumentException("no supplier for accessor " + name);
+        }
+        return new StableValueCache(supplier, FailurePolicy.NONE).dynamicInvoker();
+      });
+      implementations.add(invoker.asType(methodType(method.getReturnType())));
+    }
+    if (!invokers.keySet().equals(suppliers.keySet())) {
+      var unknownNames = new HashSet<>(suppliers.keySet());
+      unknownNames.removeAll(invokers.keySet());
+      throw new IllegalArgumentException("no accessor for suppliers " + unknownNames);
+    }
+    return type.cast(HiddenClasses.implementation(lookup, type, methods, implementations));
+  }
+
+  /**
+   * {@return a new lazy proxy implementing the interface {@code type}}
+   * <p>
+   * The delegate implementing the interface is computed by the provided {@code original}
+   * supplier when a method of the returned proxy is first called.
+   * Then all the calls to the methods of the interface (including the default methods)
+   * are forwarded to the delegate. The delegate is stored like the value of a
+   * {@linkplain #supplier(Supplier) stable supplier}, so once computed, the delegate
+   * is a constant for the JIT and its methods can be inlined.
+   * <p>
+   * The methods {@code equals}, {@code hashCode} and {@code toString} are the ones
+   * of {@link Object}, they are not forwarded to the delegate.
+   * <p>
+   * The provided {@code original} supplier is guaranteed to be successfully invoked
+   * at most once even in a multi-threaded environment. If the provided {@code original}
+   * supplier throws an exception, it is relayed to the caller of the method and
+   * no delegate is recorded.
+   * If the provided {@code original} supplier recursively calls a method of the returned
+   * proxy, an {@linkplain IllegalStateException} will be thrown.
+   *
+   * @param type     a public interface
+   * @param original supplier used to compute the delegate
+   * @param <I>      the type of the interface
+   * @throws IllegalArgumentException if {@code type} is not a public interface visible
+   *                                  from the class loader of this class
+   */
+  public static <I> I proxy(Class<I> type, Supplier<? extends I> original) {
+    requireNonNull(type);
+    requireNonNull(original);
+    checkPublicInterface(type);
+    var methods = implementableMethods(type, false);
+    var delegate = new StableValueCache(original, FailurePolicy.NONE).dynamicInvoker().asType(methodType(type));
+    var implementations = new ArrayList<MethodHandle>();
+    for(var method : methods) {
+      MethodHandle target;
       try {
-        return (T) mh.invokeExact();
-      } catch (RuntimeException | Error e) {
-        throw e;
-      } catch (Throwable e) {
-        throw new UndeclaredThrowableException(e);
+        target = publicLookup().unreflect(method);
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException(e);
       }
-    };
+      implementations.add(collectArguments(target.asType(target.type().changeParameterType(0, type)), 0, delegate));
+    }
+    return type.cast(HiddenClasses.implementation(lookup(), type, methods, implementations));
   }
 
+  // checks that the interface type can be implemented by a class of this package
+  private static void checkPublicInterface(Class<?> type) {
+    if (!type.isInterface() || !Modifier.isPublic(type.getModifiers())) {
+      throw new IllegalArgumentException(type.getName() + " is not a public interface");
+    }
+    try {
+      if (Class.forName(type.getName(), false, RemiStableValue.class.getClassLoader()) != type) {
+        throw new IllegalArgumentException(type.getName() + " is not visible from " + RemiStableValue.class.getName());
+      }
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException(type.getName() + " is not visible from " + RemiStableValue.class.getName(), e);
+    }
+  }
 
+  // returns the public methods of the interface type to implement, one per signature
+  private static List<Method> implementableMethods(Class<?> type, boolean abstractOnly) {
+    var methods = new LinkedHashMap<String, Method>();  // keyed by name and descriptor
+    for(var method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers()) || (abstractOnly && method.isDefault())) {
+        continue;
+      }
+      var descriptor = methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+      methods.putIfAbsent(method.getName() + descriptor, method);
+    }
+    return List.copyOf(methods.values());
+  }
 
   /**
    * {@return a new stable list with the provided {@code size}}
@@ -108,6 +572,11 @@ public final class RemiStableValue {
    * If the provided {@code mapper} throws an exception, it is relayed to the initial
    * caller and no value for the element is recorded.
    * <p>
+   * The first 32 computed elements are linked as constants guarded by their index,
+   * so reading one of them with a constant index is folded by the JIT.
+   * The JIT does not inline a longer chain of guards, so the other elements
+   * are read from the storage of the list.
+   * <p>
    * Any direct {@link List#subList(int, int) subList} or {@link List#reversed()} views
    * of the returned list are also stable.
    * <p>
@@ -121,428 +590,2397 @@ public final class RemiStableValue {
    * If the provided {@code mapper} recursively calls the returned list for the
    * same index, an {@linkplain IllegalStateException} will be thrown.
    *
+   * <p>
+   * The returned list also provides a non-blocking {@link StableList#tryGet(int)}
+   * and a time-bounded {@link StableList#get(int, Duration)}.
+   *
    * @param size   the size of the returned list
    * @param mapper to invoke whenever an element is first accessed
    *               (may return {@code null})
    * @param <E>    the type of elements in the returned list
    * @throws IllegalArgumentException if the provided {@code size} is negative.
    */
-  public static <E> List<E> list(int size, IntFunction<? extends E> mapper) {
+  public static <E> StableList<E> list(int size, IntFunction<? extends E> mapper) {
+    return list(size, mapper, FailurePolicy.NONE);
+  }
+
+  /**
+   * {@return a new stable list with the provided {@code size} that applies a failure policy}
+   * <p>
+   * The returned list behaves like the one returned by {@link #list(int, IntFunction)}
+   * but if the provided {@code mapper} throws an exception, the threads waiting for
+   * the element share the exception and the exception is recorded for that element
+   * as specified by the provided {@code failurePolicy}.
+   *
+   * @param size          the size of the returned list
+   * @param mapper        to invoke whenever an element is first accessed
+   * @param failurePolicy the policy applied when {@code mapper} throws an exception
+   * @param <E>           the type of elements in the returned list
+   * @throws IllegalArgumentException if the provided {@code size} is negative.
+   */
+  public static <E> StableList<E> list(int size, IntFunction<? extends E> mapper, FailurePolicy failurePolicy) {
     if (size < 0) {
       throw new IllegalArgumentException("size < 0");
     }
     requireNonNull(mapper);
-    class StableIntFunctionCache extends MutableCallSite {
-      private static final MethodHandle FALLBACK, TEST;
-      static {
-        var lookup = lookup();
-        try {
-          FALLBACK = lookup.findVirtual(StableIntFunctionCache.class, "fallback", methodType(Object.class, int.class));
-          TEST = lookup.findStatic(StableIntFunctionCache.class, "test", methodType(boolean.class, int.class, int.class));
-        } catch (NoSuchMethodException | IllegalAccessException e) {
-          throw new AssertionError(e);
-        }
+    requireNonNull(failurePolicy);
+    // the elements and the lock of the list
+    final class ListState implements IndexedState {
+      private static final VarHandle ARRAY = arrayElementVarHandle(Object[].class);
+
+      private final Object[] array;  // null, a Failure or the element, written with the lock held
+      private final ReentrantLock lock = new ReentrantLock();
+      private IntFunction<?> mapper;  // guarded by the lock, null once all the elements are computed
+      private int remaining;  // the number of elements to compute, guarded by the lock
+
+      private ListState(int size, IntFunction<?> mapper) {
+        array = new Object[size];
+        this.mapper = size == 0 ? null : mapper;
+        remaining = size;
       }
 
-      private final E[] array ;
-
-      public StableIntFunctionCache(E[] array) {
-        super(methodType(Object.class, int.class));
-        setTarget(FALLBACK.bindTo(this));
-        this.array = array;
+      @Override
+      public ReentrantLock lock() {
+        return lock;
       }
 
-      private static boolean test(int expected, int o) {
-        return expected == o;
+      @Override
+      public Object read(int index) {
+        var value = (Object) ARRAY.getAcquire(array, index);
+        return value instanceof FailurePolicy.Failure ? null : value;
       }
 
-      private Object fallback(int index) {
-        if (Thread.holdsLock(this)) {
-          throw new IllegalStateException("cyclic definition");
+      @Override
+      public Object compute(int index, long arrival) throws Throwable {
+        var value = array[index];
+        if (value != null && !(value instanceof FailurePolicy.Failure)) {
+          return value;
         }
-        E value;
-        synchronized (this) {
-          value = array[index];
-          if (value == null) {
-            value = requireNonNull(mapper.apply(index));
-            array[index] = value;
-          }
+        var failure = (FailurePolicy.Failure) value;
+        if (failurePolicy.shouldRethrow(failure, arrival)) {
+          throw failure.throwable();
+        }
+        try {
+          value = requireNonNull(mapper.apply(index));
+        } catch (Throwable e) {
+          ARRAY.setRelease(array, index, (Object) failurePolicy.fail(failure, e));
+          throw e;
+        }
+        ARRAY.setRelease(array, index, value);
+        if (--remaining == 0) {
+          mapper = null;  // let the GC collect what the mapper captures
         }
-        var target = dropArguments(constant(Object.class, value), 0, int.class);
-        var fallback = new StableIntFunctionCache(array).dynamicInvoker();
-        var guard = guardWithTest(insertArguments(TEST, 0, index), target, fallback);
-        setTarget(guard);  // this part is racy but we do not care
         return value;
       }
     }
-    record ViewList<E>(int size, MethodHandle mh) implements List<E> {
-      @Override
-      public int size() {
-        return size;
+    var state = new ListState(size, mapper);
+    var mh = new StableListCache(state, StableListCache.FOLDABLE_DEPTH).dynamicInvoker();
+    return new ViewList<>(size, mh, state);
+  }
+
+  /**
+   * {@return a new sparse stable list with the provided {@code size}}
+   * <p>
+   * The returned list behaves like the one returned by {@link #list(int, IntFunction)}
+   * but the elements are stored in chunks of 1024 elements, a chunk being allocated when
+   * an element of the chunk is first computed. Accessing an element is still a constant time
+   * operation.
+   * <p>
+   * A sparse list should be used for very large lists of which only a small fraction
+   * of the elements, clustered in a few chunks, are accessed. If the accessed elements
+   * are spread over all the chunks, the memory used is a little bigger than the memory
+   * used by a list returned by {@link #list(int, IntFunction)}.
+   * Only the first 8 computed elements are linked as constants, the other elements
+   * are read from their chunk.
+   *
+   * @param size   the size of the returned list
+   * @param mapper to invoke whenever an element is first accessed
+   * @param <E>    the type of elements in the returned list
+   * @throws IllegalArgumentException if the provided {@code size} is negative.
+   */
+  public static <E> StableList<E> sparseList(int size, IntFunction<? extends E> mapper) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    requireNonNull(mapper);
+    // the chunks and the lock of the list
+    final class SparseState implements IndexedState {
+      private static final int CHUNK_SHIFT = 10;
+      private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+      private static final VarHandle CHUNKS = arrayElementVarHandle(Object[][].class);
+      private static final VarHandle ELEMENTS = arrayElementVarHandle(Object[].class);
+
+      private final int size;
+      private final Object[][] chunks;  // a chunk is allocated and an element is written with the lock held
+      private final ReentrantLock lock = new ReentrantLock();
+      private IntFunction<?> mapper;  // guarded by the lock, null once all the elements are computed
+      private int remaining;  // the number of elements to compute, guarded by the lock
+
+      private SparseState(int size, IntFunction<?> mapper) {
+        this.size = size;
+        this.chunks = new Object[(size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][];
+        this.mapper = size == 0 ? null : mapper;
+        remaining = size;
       }
 
       @Override
-      public boolean isEmpty() {
-        return size != 0;
+      public ReentrantLock lock() {
+        return lock;
       }
 
       @Override
-      @SuppressWarnings("unchecked")
-      public E get(int index) {
-        checkIndex(index, size);
-        try {
-          return (E) mh.invokeExact(index);
-        } catch (RuntimeException | Error e) {
-          throw e;
-        } catch (Throwable e) {
-          throw new RuntimeException(e);
+      public Object read(int index) {
+        var chunk = (Object[]) CHUNKS.getAcquire(chunks, index >>> CHUNK_SHIFT);
+        if (chunk == null) {
+          return null;
         }
+        return (Object) ELEMENTS.getAcquire(chunk, index & (CHUNK_SIZE - 1));
       }
 
       @Override
-      public boolean equals(Object obj) {
-        if ((!(obj instanceof List<?> l))) {
-          return false;
+      public Object compute(int index, long arrival) {
+        var chunkIndex = index >>> CHUNK_SHIFT;
+        var chunk = chunks[chunkIndex];
+        if (chunk != null && chunk[index & (CHUNK_SIZE - 1)] != null) {
+          return chunk[index & (CHUNK_SIZE - 1)];
+        }
+        var value = requireNonNull(mapper.apply(index));
+        if (chunk == null) {
+          chunk = new Object[Math.min(CHUNK_SIZE, size - (chunkIndex << CHUNK_SHIFT))];
+          CHUNKS.setRelease(chunks, chunkIndex, chunk);
+        }
+        ELEMENTS.setRelease(chunk, index & (CHUNK_SIZE - 1), value);
+        if (--remaining == 0) {
+          mapper = null;  // let the GC collect what the mapper captures
         }
-        return List.of(toArray()).equals(l);
+        return value;
       }
+    }
+    var state = new SparseState(size, mapper);
+    var mh = new StableListCache(state, StableListCache.INLINE_DEPTH).dynamicInvoker();
+    return new ViewList<>(size, mh, state);
+  }
 
-      @Override
-      public int hashCode() {
-        return List.of(toArray()).hashCode();
+  /**
+   * {@return a new stable list with the provided {@code size} whose elements are loaded by blocks}
+   * <p>
+   * The returned list behaves like the one returned by {@link #list(int, IntFunction)}
+   * but the elements are loaded by blocks of {@code blockSize} contiguous elements,
+   * the first access to an element of a block loads all the elements of the block with
+   * one call to the provided {@code loader}. The last block may be smaller.
+   * The elements of a block are published atomically, so either all the elements of a block
+   * are visible or none of them.
+   * <p>
+   * A block list should be used when the elements come from a store that is far cheaper
+   * to read in pages than element by element, like a database query with
+   * {@code LIMIT/OFFSET} or a range read of a blob.
+   * <p>
+   * The provided {@code loader} is guaranteed to be successfully invoked
+   * at most once per block, even in a multi-threaded environment.
+   * If the provided {@code loader} throws an exception, it is relayed to the initial
+   * caller and no element of the block is initialized.
+   *
+   * @param size      the size of the returned list
+   * @param blockSize the number of elements loaded by one call to the loader
+   * @param loader    to invoke whenever an element of a block is first accessed
+   * @param <E>       the type of elements in the returned list
+   * @throws IllegalArgumentException if the provided {@code size} is negative
+   *                                  or if the provided {@code blockSize} is not positive.
+   */
+  public static <E> StableList<E> blockList(int size, int blockSize, StableList.BlockLoader<? extends E> loader) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("blockSize <= 0");
+    }
+    requireNonNull(loader);
+    // the blocks and the lock of the list
+    final class BlockState implements IndexedState {
+      private static final VarHandle BLOCKS = arrayElementVarHandle(Object[][].class);
+
+      private final Object[][] blocks;  // a block is fully written before being published with the lock held
+      private final ReentrantLock lock = new ReentrantLock();
+      private StableList.BlockLoader<?> loader;  // guarded by the lock, null once all the blocks are loaded
+      private int remaining;  // the number of blocks to load, guarded by the lock
+
+      private BlockState(int blockCount, StableList.BlockLoader<?> loader) {
+        this.blocks = new Object[blockCount][];
+        this.loader = blockCount == 0 ? null : loader;
+        remaining = blockCount;
       }
 
       @Override
-      public String toString() {
-        return List.of(toArray()).toString();
+      public ReentrantLock lock() {
+        return lock;
       }
 
       @Override
-      public boolean containsAll(Collection<?> c) {
-        return new HashSet<>(this).containsAll(c);
+      public Object read(int index) {
+        var block = (Object[]) BLOCKS.getAcquire(blocks, index / blockSize);
+        return block == null ? null : block[index % blockSize];
       }
 
       @Override
-      public Iterator<E> iterator() {
-        return listIterator(0);
+      public Object compute(int index, long arrival) {
+        var blockIndex = index / blockSize;
+        var block = blocks[blockIndex];
+        if (block == null) {
+          var start = blockIndex * blockSize;
+          var end = start + Math.min(blockSize, size - start);
+          var elements = loader.load(start, end);
+          if (elements.length != end - start) {
+            throw new IllegalStateException("loader returned " + elements.length + " elements for block " + start + ".." + end);
+          }
+          block = Arrays.copyOf(elements, elements.length, Object[].class);
+          for(var element : block) {
+            requireNonNull(element);
+          }
+          BLOCKS.setRelease(blocks, blockIndex, block);
+          if (--remaining == 0) {
+            loader = null;  // let the GC collect what the loader captures
+          }
+        }
+        return block[index % blockSize];
       }
-
+    }
+    var state = new BlockState(size == 0 ? 0 : (int) ((size - 1L) / blockSize + 1), loader);
+    var mh = new StableListCache(state, StableListCache.INLINE_DEPTH).dynamicInvoker();
+    return new ViewList<>(size, mh, state);
+  }
+
+  /**
+   * {@return a new stable list with the provided {@code size} whose elements are computed from other elements}
+   * <p>
+   * The returned list behaves like the one returned by {@link #list(int, IntFunction)}
+   * but the provided {@code mapper} receives the list, so it can compute an element from
+   * other elements, typically to memoize a dynamic programming recurrence
+   * <pre>
+   * var fibonacci = RemiStableValue.recursiveList(1_000_000, (list, i) -&gt;
+   *     i &lt; 2 ? BigInteger.valueOf(i) : list.get(i - 1).add(list.get(i - 2)));
+   * </pre>
+   * Accessing an element may compute a long chain of dependencies; when the computations of
+   * the elements are nested too deeply, the computation of the innermost dependency is
+   * suspended and restarted from an explicit stack once its own dependencies are computed,
+   * so the depth of a chain of dependencies is not limited by the size of the Java stack.
+   * <p>
+   * The provided {@code mapper} may be invoked several times for the same index, but
+   * the invocations that access an element not yet computed may be abandoned,
+   * so the {@code mapper} should have no side effect before it has accessed the elements
+   * it needs and it should not catch the exceptions thrown by the accesses to the list.
+   * The {@code mapper} is guaranteed to return normally at most once per index,
+   * even in a multi-threaded environment; competing threads accessing an element under
+   * computation will block until the computation ends.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and the element is not initialized.
+   * If the computation of an element depends on itself, an {@linkplain IllegalStateException}
+   * will be thrown.
+   *
+   * @param size   the size of the returned list
+   * @param mapper to invoke with the list whenever an element is first accessed
+   * @param <E>    the type of elements in the returned list
+   * @throws IllegalArgumentException if the provided {@code size} is negative.
+   */
+  public static <E> StableList<E> recursiveList(int size, StableList.RecursiveMapper<E> mapper) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    requireNonNull(mapper);
+    // a dependency not computed when the computations are nested too deeply
+    final class Suspension extends RuntimeException {
+      private final int index;
+
+      private Suspension(int index) {
+        super(null, null, false, false);
+        this.index = index;
+      }
+    }
+    // computes the elements with the lock of the cache held, trampolines the deep dependencies
+    final class Trampoline implements IntFunction<Object> {
+      private static final int MAX_DEPTH = 256;
+
+      private StableList<E> list;  // the list being computed, guarded by the lock of the cache
+      private int depth;  // number of nested computations, guarded by the lock of the cache
+
+      @Override
+      public Object apply(int index) {
+        if (depth == 0) {
+          return trampoline(index);
+        }
+        if (depth == MAX_DEPTH) {
+          throw new Suspension(index);
+        }
+        depth++;
+        try {
+          return requireNonNull(mapper.apply(list, index));
+        } finally {
+          depth--;
+        }
+      }
+
+      private Object trampoline(int index) {
+        var dependencies = new ArrayDeque<Integer>();  // the suspended dependencies, the deepest first
+        // each dependency is needed by the ones below it, so a dependency suspended
+        // while it is still pending depends on itself
+        var pending = new HashSet<Integer>();
+        depth = 1;
+        try {
+          for(;;) {
+            try {
+              while (!dependencies.isEmpty()) {
+                list.get(dependencies.peek());
+                pending.remove(dependencies.pop());
+              }
+              return requireNonNull(mapper.apply(list, index));
+            } catch (Suspension suspension) {
+              if (!pending.add(suspension.index)) {
+                throw new IllegalStateException("cyclic definition");
+              }
+              dependencies.push(suspension.index);
+            }
+          }
+        } finally {
+          depth = 0;
+        }
+      }
+    }
+    var trampoline = new Trampoline();
+    var values = new Object[size];
+    var cache = new StableTableCache(Object.class, values, trampoline);
+    final class RecursiveState implements IndexedState {
+      @Override
+      public ReentrantLock lock() {
+        return cache.lock;
+      }
+
+      @Override
+      public Object read(int index) {
+        return cache.isComputed(index) ? values[index] : null;
+      }
+
+      @Override
+      public Object compute(int index, long arrival) {
+        return cache.slowPath(index);
+      }
+    }
+    var list = new ViewList<E>(size, cache.dynamicInvoker(), new RecursiveState());
+    cache.lock.lock();  // the trampoline is only called with the lock held
+    try {
+      trampoline.list = list;
+    } finally {
+      cache.lock.unlock();
+    }
+    return list;
+  }
+
+  // the storage of a stable list
+  private interface IndexedState {
+    ReentrantLock lock();
+
+    // acquire read, returns null if the element is not computed
+    Object read(int index);
+
+    // called with the lock held, returns the element, computing it if necessary
+    Object compute(int index, long arrival) throws Throwable;
+
+    default Object get(int index, long timeout) throws Throwable {
+      var value = read(index);
+      if (value != null) {
+        return value;
+      }
+      var lock = lock();
+      if (lock.isHeldByCurrentThread()) {
+        throw new IllegalStateException("cyclic definition");
+      }
+      var arrival = System.nanoTime();
+      if (!lock.tryLock(timeout, NANOSECONDS)) {
+        throw new TimeoutException();
+      }
+      try {
+        return compute(index, arrival);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  // the call site of a stable list, a computed element is linked as a constant guarded by its index,
+  // followed by a new call site for the other indexes, the elements after the first inlineDepth ones
+  // are read from the storage
+  private static final class StableListCache extends MutableCallSite {
+    private static final int INLINE_DEPTH = 8;  // of the sparse lists and the block lists
+    // C2 stops inlining a chain of guards after about 32 guards (MaxForceInlineLevel),
+    // linking more elements would not fold them, only make the chain slower and deeper
+    private static final int FOLDABLE_DEPTH = 32;
+    private static final MethodHandle FALLBACK, TEST;
+    static {
+      var lookup = lookup();
+      try {
+        FALLBACK = lookup.findVirtual(StableListCache.class, "fallback", methodType(Object.class, int.class));
+        TEST = lookup.findStatic(StableListCache.class, "test", methodType(boolean.class, int.class, int.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    private final IndexedState state;
+    private final int inlineDepth;
+    private final int depth;
+
+    private StableListCache(IndexedState state, int inlineDepth, int depth) {
+      super(methodType(Object.class, int.class));
+      setTarget(FALLBACK.bindTo(this));
+      this.state = state;
+      this.inlineDepth = inlineDepth;
+      this.depth = depth;
+    }
+
+    private StableListCache(IndexedState state, int inlineDepth) {
+      this(state, inlineDepth, 0);
+    }
+
+    private static boolean test(int expected, int index) {
+      return expected == index;
+    }
+
+    private Object fallback(int index) throws Throwable {
+      var value = state.read(index);
+      if (value == null) {
+        value = compute(index);
+      }
+      if (depth == inlineDepth) {
+        return value;
+      }
+      var target = dropArguments(constant(Object.class, value), 0, int.class);
+      var guard = guardWithTest(insertArguments(TEST, 0, index), target,
+          new StableListCache(state, inlineDepth, depth + 1).dynamicInvoker());
+      setTarget(guard);  // this part is racy but we do not care
+      return value;
+    }
+
+    private Object compute(int index) throws Throwable {
+      var lock = state.lock();
+      if (lock.isHeldByCurrentThread()) {
+        throw new IllegalStateException("cyclic definition");
+      }
+      var arrival = System.nanoTime();
+      lock.lock();
+      try {
+        return state.compute(index, arrival);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * {@return a new stable list of the fixed-size records of the provided {@code segment}}
+   * <p>
+   * The returned list is an {@linkplain Collection##unmodifiable unmodifiable} list
+   * with one element per record of {@code stride} bytes of the provided {@code segment}.
+   * An element is decoded from a {@linkplain MemorySegment#asSlice(long, long) slice}
+   * of the segment via the provided {@code decoder} when it is first accessed and
+   * then recorded like an element of {@link #list(int, IntFunction)}.
+   * The slice is a view of the segment, the content of the segment is not copied.
+   * <p>
+   * Typically, the segment is a file mapped in memory with
+   * {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long, java.lang.foreign.Arena)},
+   * so creating the list only maps the file and the pages of the file are shared
+   * with the other processes mapping the same file.
+   * The segment should not be modified, and it should be accessible from all the threads
+   * that access the returned list.
+   *
+   * @param segment the segment containing the records
+   * @param stride  the size in bytes of a record
+   * @param decoder to invoke with the slice of a record whenever an element is first accessed
+   * @param <E>     the type of elements in the returned list
+   * @throws IllegalArgumentException if the provided {@code stride} is not positive,
+   *                                  if the size of the segment is not a multiple of
+   *                                  the stride or if there are more records than
+   *                                  {@link Integer#MAX_VALUE}.
+   * @see #list(int, IntFunction)
+   */
+  public static <E> StableList<E> list(MemorySegment segment, long stride, Function<? super MemorySegment, ? extends E> decoder) {
+    requireNonNull(segment);
+    requireNonNull(decoder);
+    if (stride <= 0) {
+      throw new IllegalArgumentException("stride <= 0");
+    }
+    if (segment.byteSize() % stride != 0) {
+      throw new IllegalArgumentException("segment size is not a multiple of the stride");
+    }
+    var size = segment.byteSize() / stride;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("too many records " + size);
+    }
+    return list((int) size, index -> decoder.apply(segment.asSlice(index * stride, stride)));
+  }
+
+  // the accesses to the values of a stable map
+  private interface KeyedAccess {
+    // non-blocking, returns null if the value is not computed
+    Object tryGet(Object key);
+
+    // blocks at most timeout nanoseconds for another thread
+    Object get(Object key, long timeout) throws Throwable;
+
+    // returns the value, computing it if necessary, returns null if the key is not a key of the map
+    Object load(Object key) throws Throwable;
+  }
+
+  // the call site of a stable map, a computed value is linked as a constant guarded by its key,
+  // followed by a new call site for the other keys, the values of the keys after the first
+  // inlineDepth ones are read from the storage
+  private static final class StableMapCache extends MutableCallSite {
+    private static final int INLINE_DEPTH = 8;  // of the batch maps
+    // C2 does not inline more than about 32 guards of a chain (MaxForceInlineLevel),
+    // so the values linked deeper would not be folded
+    private static final int FOLDABLE_DEPTH = 32;
+    private static final MethodHandle FALLBACK, TEST;
+    static {
+      var lookup = lookup();
+      try {
+        FALLBACK = lookup.findVirtual(StableMapCache.class, "fallback", methodType(Object.class, Object.class));
+        TEST = lookup.findStatic(StableMapCache.class, "test", methodType(boolean.class, Object.class, Object.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    private final KeyedAccess access;
+    private final int inlineDepth;
+    private final int depth;
+
+    private StableMapCache(KeyedAccess access, int inlineDepth, int depth) {
+      super(methodType(Object.class, Object.class));
+      setTarget(FALLBACK.bindTo(this));
+      this.access = access;
+      this.inlineDepth = inlineDepth;
+      this.depth = depth;
+    }
+
+    private StableMapCache(KeyedAccess access, int inlineDepth) {
+      this(access, inlineDepth, 0);
+    }
+
+    private static boolean test(Object expected, Object o) {
+      return expected == o;
+    }
+
+    private Object fallback(Object key) throws Throwable {
+      var value = access.load(key);
+      if (value == null || depth == inlineDepth) {
+        return value;
+      }
+      var target = dropArguments(constant(Object.class, value), 0, Object.class);
+      var guard = guardWithTest(TEST.bindTo(key), target, new StableMapCache(access, inlineDepth, depth + 1).dynamicInvoker());
+      setTarget(guard);  // this part is racy but we do not care
+      return value;
+    }
+  }
+
+  // the view of a stable map, the values are obtained through the call site mh
+  private record ViewMap<K,V>(Set<K> keys, MethodHandle mh, KeyedAccess access) implements StableMap<K,V> {
+    @Override
+    public int size() {
+      return keys.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return keys.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if ((!(obj instanceof Map<?, ?> m))) {
+        return false;
+      }
+      return Map.copyOf(this).equals(m);
+    }
+
+    @Override
+    public int hashCode() {
+      return Map.copyOf(this).hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return Map.copyOf(this).toString();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      requireNonNull(key);
+      return keys.contains(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+      requireNonNull(value);
+      return get(value) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+      requireNonNull(key);
+      try {
+        return (V) mh.invokeExact(key);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<V> tryGet(Object key) {
+      requireNonNull(key);
+      return Optional.ofNullable((V) access.tryGet(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key, Duration timeout) throws InterruptedException, TimeoutException {
+      requireNonNull(key);
+      var nanos = NANOSECONDS.convert(timeout);
+      try {
+        return (V) access.get(key, nanos);
+      } catch (InterruptedException | TimeoutException | RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    }
+
+    @Override
+    public Set<K> keySet() {
+      return keys;
+    }
+
+    @Override
+    public Collection<V> values() {
+      return new AbstractCollection<V>() {
+        @Override
+        public int size() {
+          return keys.size();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+          var it = keys.iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+
+            @Override
+            public V next() {
+              return get(it.next());
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return ViewMap.this.keys.size();
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+          var it = keys.iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+
+            @Override
+            public Entry<K,V> next() {
+              var key = it.next();
+              return Map.entry(key, get(key));
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    public V put(K key, V value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(Object key) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private record ViewList<E>(int size, MethodHandle mh, IndexedState state) implements StableList<E> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+      checkIndex(index, size);
+      try {
+        return (E) mh.invokeExact(index);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<E> tryGet(int index) {
+      checkIndex(index, size);
+      return Optional.ofNullable((E) state.read(index));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index, Duration timeout) throws InterruptedException, TimeoutException {
+      checkIndex(index, size);
+      var nanos = NANOSECONDS.convert(timeout);
+      try {
+        return (E) state.get(index, nanos);
+      } catch (InterruptedException | TimeoutException | RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if ((!(obj instanceof List<?> l))) {
+        return false;
+      }
+      return List.of(toArray()).equals(l);
+    }
+
+    @Override
+    public int hashCode() {
+      return List.of(toArray()).hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return List.of(toArray()).toString();
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+      return new HashSet<>(this).containsAll(c);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return listIterator(0);
+    }
+
+    @Override
+    public Object[] toArray() {
+      var array = new Object[size];
+      for(var i = 0; i < size; i++) {
+        array[i] = get(i);
+      }
+      return array;
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+      return List.of(toArray()).toArray(array);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(IntFunction<T[]> generator) {
+      var array = generator.apply(size);
+      for(var i = 0; i < size; i++) {
+        array[i] = (T) get(i);
+      }
+      return array;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      requireNonNull(o);
+      for(var i = 0; i < size; i++) {
+        if (o.equals(get(i))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+      requireNonNull(o);
+      for(var i = 0; i < size; i++) {
+        if (o.equals(get(i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+      requireNonNull(o);
+      for(var i = size - 1; i >= 0; i--) {
+        if (o.equals(get(i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+      return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+      checkIndex(index, size + 1);
+      var start = index;
+      return new ListIterator<>() {
+        private int index = start;
+
+        @Override
+        public boolean hasNext() {
+          return index < size;
+        }
+
+        @Override
+        public E next() {
+          if (index >= size) {
+            throw new NoSuchElementException();
+          }
+          return get(index++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+          return index != 0;
+        }
+
+        @Override
+        public E previous() {
+          if (index == 0) {
+            throw new NoSuchElementException();
+          }
+          return get(--index);
+        }
+
+        @Override
+        public int nextIndex() {
+          return index;
+        }
+
+        @Override
+        public int previousIndex() {
+          return index - 1;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(E e) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(E e) {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<E> subList(int fromIndex, int toIndex) {
+      return (List<E>) Arrays.asList(toArray()).subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public boolean add(E e) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public E set(int index, E element) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void add(int index, E element) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public E remove(int index) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * {@return a new stable table with the provided number of {@code rows} and {@code columns}}
+   * <p>
+   * The cells of the returned table are computed via the provided {@code mapper}
+   * when they are first accessed and stored in a flat array.
+   * The first computed cells are linked as constants, so accessing them with constant
+   * indices is constant-folded by the JIT, the other cells are read from the array.
+   * <p>
+   * The provided {@code mapper} function is guaranteed to be successfully invoked
+   * at most once per cell, even in a multi-threaded environment. Competing
+   * threads accessing a cell under computation will block until a cell is computed
+   * or an exception is thrown by the computing thread.
+   * <p>
+   * The provided {@code mapper} can access the other cells of the table, so the table
+   * can be used to memoize a dynamic programming algorithm.
+   * If the provided {@code mapper} recursively calls the returned table for the
+   * same cell, an {@linkplain IllegalStateException} will be thrown.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and no value for the cell is recorded.
+   *
+   * @param rows    the number of rows of the returned table
+   * @param columns the number of columns of the returned table
+   * @param mapper  to invoke whenever a cell is first accessed
+   * @param <E>     the type of the cells of the returned table
+   * @throws IllegalArgumentException if the number of rows or columns is negative
+   *                                  or if the table has more than {@link Integer#MAX_VALUE} cells
+   */
+  public static <E> StableTable<E> table(int rows, int columns, StableTable.Mapper<? extends E> mapper) {
+    requireNonNull(mapper);
+    var size = tableSize(rows, columns);
+    record StableTableImpl<E>(int rows, int columns, MethodHandle mh) implements StableTable<E> {
+      @Override
+      @SuppressWarnings("unchecked")
+      public E get(int row, int column) {
+        checkCell(row, column, rows, columns);
+        try {
+          return (E) mh.invokeExact(row * columns + column);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      }
+
+      @Override
+      public String toString() {
+        return "StableTable[rows=" + rows + ", columns=" + columns + "]";
+      }
+    }
+    var cache = new StableTableCache(Object.class, new Object[size],
+        index -> requireNonNull(mapper.apply(index / columns, index % columns)));
+    return new StableTableImpl<>(rows, columns, cache.dynamicInvoker());
+  }
+
+  /**
+   * {@return a new stable table of {@code int}s with the provided number of {@code rows}
+   * and {@code columns}}
+   * <p>
+   * The returned table behaves like the one returned by {@link #table(int, int, StableTable.Mapper)}
+   * but the cells are stored in an {@code int} array.
+   *
+   * @param rows    the number of rows of the returned table
+   * @param columns the number of columns of the returned table
+   * @param mapper  to invoke with the row and the column whenever a cell is first accessed
+   * @throws IllegalArgumentException if the number of rows or columns is negative
+   *                                  or if the table has more than {@link Integer#MAX_VALUE} cells
+   */
+  public static StableTable.OfInt intTable(int rows, int columns, IntBinaryOperator mapper) {
+    requireNonNull(mapper);
+    var size = tableSize(rows, columns);
+    record StableIntTableImpl(int rows, int columns, MethodHandle mh) implements StableTable.OfInt {
+      @Override
+      public int getInt(int row, int column) {
+        checkCell(row, column, rows, columns);
+        try {
+          return (int) mh.invokeExact(row * columns + column);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      }
+
+      @Override
+      public String toString() {
+        return "StableTable.OfInt[rows=" + rows + ", columns=" + columns + "]";
+      }
+    }
+    var cache = new StableTableCache(int.class, new int[size],
+        index -> mapper.applyAsInt(index / columns, index % columns));
+    return new StableIntTableImpl(rows, columns, cache.dynamicInvoker());
+  }
+
+  /**
+   * {@return a new stable table of {@code double}s with the provided number of {@code rows}
+   * and {@code columns}}
+   * <p>
+   * The returned table behaves like the one returned by {@link #table(int, int, StableTable.Mapper)}
+   * but the cells are stored in a {@code double} array.
+   *
+   * @param rows    the number of rows of the returned table
+   * @param columns the number of columns of the returned table
+   * @param mapper  to invoke whenever a cell is first accessed
+   * @throws IllegalArgumentException if the number of rows or columns is negative
+   *                                  or if the table has more than {@link Integer#MAX_VALUE} cells
+   */
+  public static StableTable.OfDouble doubleTable(int rows, int columns, StableTable.DoubleMapper mapper) {
+    requireNonNull(mapper);
+    var size = tableSize(rows, columns);
+    record StableDoubleTableImpl(int rows, int columns, MethodHandle mh) implements StableTable.OfDouble {
+      @Override
+      public double getDouble(int row, int column) {
+        checkCell(row, column, rows, columns);
+        try {
+          return (double) mh.invokeExact(row * columns + column);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
+      }
+
+      @Override
+      public String toString() {
+        return "StableTable.OfDouble[rows=" + rows + ", columns=" + columns + "]";
+      }
+    }
+    var cache = new StableTableCache(double.class, new double[size],
+        index -> mapper.applyAsDouble(index / columns, index % columns));
+    return new StableDoubleTableImpl(rows, columns, cache.dynamicInvoker());
+  }
+
+  private static int tableSize(int rows, int columns) {
+    if (rows < 0 || columns < 0) {
+      throw new IllegalArgumentException("rows < 0 or columns < 0");
+    }
+    var size = (long) rows * columns;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("too many cells " + size);
+    }
+    return (int) size;
+  }
+
+  // one bounds check for both indices
+  private static void checkCell(int row, int column, int rows, int columns) {
+    if (Integer.compareUnsigned(row, rows) >= 0 | Integer.compareUnsigned(column, columns) >= 0) {
+      throw new IndexOutOfBoundsException("cell (" + row + ", " + column + ") out of bounds for " + rows + "x" + columns);
+    }
+  }
+
+  // the call site of a stable table indexed by row * columns + column,
+  // the first computed cells are linked as constants, the other cells are read from the array,
+  // the mapper is released once all the cells are computed
+  private static final class StableTableCache extends MutableCallSite {
+    private static final int INLINE_DEPTH = 8;
+    private static final byte ABSENT = 0, COMPUTING = 1, COMPUTED = 2;
+    private static final VarHandle STATES = arrayElementVarHandle(byte[].class);
+    private static final MethodHandle IS_COMPUTED, SLOW_PATH, TEST;
+    static {
+      var lookup = lookup();
+      try {
+        IS_COMPUTED = lookup.findVirtual(StableTableCache.class, "isComputed", methodType(boolean.class, int.class));
+        SLOW_PATH = lookup.findVirtual(StableTableCache.class, "slowPath", methodType(Object.class, int.class));
+        TEST = lookup.findStatic(StableTableCache.class, "test", methodType(boolean.class, int.class, int.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    private final Object values;  // an array, a value is published by the release write of its state
+    private final byte[] states;
+    private IntFunction<?> mapper;  // guarded by lock, null once all the cells are computed
+    private int remaining;  // the number of cells to compute, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private int depth;  // guarded by lock
+
+    private StableTableCache(Class<?> type, Object values, IntFunction<?> mapper) {
+      super(methodType(type, int.class));
+      this.values = values;
+      this.states = new byte[Array.getLength(values)];
+      this.mapper = mapper;
+      remaining = states.length;
+      var read = arrayElementGetter(values.getClass()).bindTo(values);
+      setTarget(guardWithTest(IS_COMPUTED.bindTo(this), read, SLOW_PATH.bindTo(this).asType(type())));
+    }
+
+    private static boolean test(int expected, int index) {
+      return expected == index;
+    }
+
+    private boolean isComputed(int index) {
+      return (byte) STATES.getAcquire(states, index) == COMPUTED;
+    }
+
+    private Object slowPath(int index) {
+      lock.lock();
+      try {
+        var state = states[index];
+        if (state == COMPUTED) {
+          return Array.get(values, index);
+        }
+        if (state == COMPUTING) {  // the lock is held, so the cell is computed by the current thread
+          throw new IllegalStateException("cyclic definition");
+        }
+        states[index] = COMPUTING;
+        Object value;
+        try {
+          value = mapper.apply(index);
+        } catch (Throwable e) {
+          states[index] = ABSENT;
+          throw e;
+        }
+        Array.set(values, index, value);
+        STATES.setRelease(states, index, COMPUTED);
+        if (--remaining == 0) {
+          mapper = null;  // let the GC collect what the mapper captures
+        }
+        if (depth < INLINE_DEPTH) {
+          depth++;
+          var target = dropArguments(constant(type().returnType(), value), 0, int.class);
+          setTarget(guardWithTest(insertArguments(TEST, 0, index), target, getTarget()));
+        }
+        return value;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * {@return a new off-heap stable array of {@code long}s with the provided {@code size}}
+   * <p>
+   * The elements of the returned array are computed via the provided {@code mapper}
+   * when they are first accessed and stored in a memory segment allocated by
+   * an {@linkplain java.lang.foreign.Arena#ofAuto() automatic arena}, so the array can
+   * have more than {@link Integer#MAX_VALUE} elements and adds no GC pressure.
+   * The memory of the segment is allocated and zeroed when the array is created, so creating
+   * an array costs 8 bytes plus one bit per element, and the time to zero them, even if only
+   * a few elements are accessed. The memory is freed when the array is not reachable anymore.
+   * <p>
+   * The provided {@code mapper} function is guaranteed to be successfully invoked
+   * at most once per index, even in a multi-threaded environment. Competing threads
+   * accessing an element already under computation will block until the element is computed
+   * or an exception is thrown by the computing thread. An element is published
+   * by setting its bit in an off-heap bitmap, so the fast path is a read of the bitmap
+   * and a read of the element.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and the element is not initialized.
+   * If the provided {@code mapper} recursively calls the returned array for the
+   * same index, an {@linkplain IllegalStateException} will be thrown.
+   *
+   * @param size   the size of the returned array
+   * @param mapper to invoke whenever an element is first accessed
+   * @throws IllegalArgumentException if the provided {@code size} is negative.
+   */
+  public static StableArray.OfLong offHeapLongArray(long size, LongUnaryOperator mapper) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    requireNonNull(mapper);
+    record OffHeapLongArray(long size, MemorySegment values, OffHeapStorage storage) implements StableArray.OfLong {
       @Override
-      public Object[] toArray() {
-        var array = new Object[size];
-        for(var i = 0; i < size; i++) {
-          array[i] = get(i);
+      public long getLong(long index) {
+        checkIndex(index, size);
+        if (!storage.isDone(index)) {
+          storage.initialize(index);
         }
-        return array;
+        return values.getAtIndex(JAVA_LONG, index);
       }
 
       @Override
-      public <T> T[] toArray(T[] array) {
-        return List.of(toArray()).toArray(array);
+      public String toString() {
+        return "StableArray.OfLong[size=" + size + "]";
       }
+    }
+    var storage = new OffHeapStorage(JAVA_LONG, size,
+        (values, index) -> values.setAtIndex(JAVA_LONG, index, mapper.applyAsLong(index)));
+    return new OffHeapLongArray(size, storage.values(), storage);
+  }
 
+  /**
+   * {@return a new off-heap stable array of {@code double}s with the provided {@code size}}
+   * <p>
+   * The returned array behaves like the one returned by
+   * {@link #offHeapLongArray(long, LongUnaryOperator)} but stores {@code double}s.
+   *
+   * @param size   the size of the returned array
+   * @param mapper to invoke whenever an element is first accessed
+   * @throws IllegalArgumentException if the provided {@code size} is negative.
+   */
+  public static StableArray.OfDouble offHeapDoubleArray(long size, LongToDoubleFunction mapper) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    requireNonNull(mapper);
+    record OffHeapDoubleArray(long size, MemorySegment values, OffHeapStorage storage) implements StableArray.OfDouble {
       @Override
-      @SuppressWarnings("unchecked")
-      public <T> T[] toArray(IntFunction<T[]> generator) {
-        var array = generator.apply(size);
-        for(var i = 0; i < size; i++) {
-          array[i] = (T) get(i);
+      public double getDouble(long index) {
+        checkIndex(index, size);
+        if (!storage.isDone(index)) {
+          storage.initialize(index);
         }
-        return array;
+        return values.getAtIndex(JAVA_DOUBLE, index);
       }
 
       @Override
-      public boolean contains(Object o) {
-        requireNonNull(o);
-        for(var i = 0; i < size; i++) {
-          if (o.equals(get(i))) {
-            return false;
-          }
-        }
-        return false;
+      public String toString() {
+        return "StableArray.OfDouble[size=" + size + "]";
+      }
+    }
+    var storage = new OffHeapStorage(JAVA_DOUBLE, size,
+        (values, index) -> values.setAtIndex(JAVA_DOUBLE, index, mapper.applyAsDouble(index)));
+    return new OffHeapDoubleArray(size, storage.values(), storage);
+  }
+
+  /**
+   * {@return a new stable map with the provided {@code keys}}
+   * <p>
+   * The returned map is an {@linkplain Collection##unmodifiable unmodifiable} map whose
+   * keys are known at construction. The map's values are computed via the provided
+   * {@code mapper} when they are first accessed
+   * (e.g. via {@linkplain Map#get(Object) Map::get}).
+   * <p>
+   * The provided {@code mapper} function is guaranteed to be successfully invoked
+   * at most once per key, even in a multi-threaded environment. Competing
+   * threads accessing a value already under computation will block until an element
+   * is computed or an exception is thrown by the computing thread.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and no value associated with the provided key is recorded.
+   * <p>
+   * The first 32 computed values are linked as constants guarded by the identity of
+   * their key, so reading one of them with a constant key is folded by the JIT.
+   * The JIT does not inline a longer chain of guards, so the other values
+   * are read from the storage of the map.
+   * <p>
+   * Any direct {@link Map#values()} or {@link Map#entrySet()} views
+   * of the returned map are also stable.
+   * <p>
+   * The returned map is unmodifiable and does not implement the
+   * {@linkplain Collection##optional-operations optional operations} in the
+   * {@linkplain Map} interface.
+   * <p>
+   * If the provided {@code mapper} recursively calls the returned map for
+   * the same key, an {@linkplain IllegalStateException} will be thrown.
+   * <p>
+   * The returned map also provides a non-blocking {@link StableMap#tryGet(Object)}
+   * and a time-bounded {@link StableMap#get(Object, Duration)}.
+   *
+   * @param keys   the (non-null) keys in the returned map
+   * @param mapper to invoke whenever an associated value is first accessed
+   *               (may return {@code null})
+   * @param <K>    the type of keys maintained by the returned map
+   * @param <V>    the type of mapped values in the returned map
+   * @throws NullPointerException if the provided set of {@code inputs} contains a
+   *                              {@code null} element.
+   */
+  public static <K,V> StableMap<K,V> map(Set<K> keys, Function<? super K, ? extends V> mapper) {
+    return map(keys, mapper, FailurePolicy.NONE);
+  }
+
+  /**
+   * {@return a new stable map with the provided {@code keys} that applies a failure policy}
+   * <p>
+   * The returned map behaves like the one returned by {@link #map(Set, Function)}
+   * but if the provided {@code mapper} throws an exception, the threads waiting for
+   * the value share the exception and the exception is recorded for that key
+   * as specified by the provided {@code failurePolicy}.
+   *
+   * @param keys          the (non-null) keys in the returned map
+   * @param mapper        to invoke whenever an associated value is first accessed
+   * @param failurePolicy the policy applied when {@code mapper} throws an exception
+   * @param <K>           the type of keys maintained by the returned map
+   * @param <V>           the type of mapped values in the returned map
+   * @throws NullPointerException if the provided set of {@code inputs} contains a
+   *                              {@code null} element.
+   */
+  public static <K,V> StableMap<K,V> map(Set<K> keys, Function<? super K, ? extends V> mapper, FailurePolicy failurePolicy) {
+    requireNonNull(keys);
+    requireNonNull(mapper);
+    requireNonNull(failurePolicy);
+    // the values and the lock shared by all the call sites of the map
+    final class MapState implements KeyedAccess {
+      private static final Object UNINITIALIZED = new Object();
+
+      private final ConcurrentHashMap<Object, Object> map;  // key -> UNINITIALIZED, a Failure or the value
+      private final ReentrantLock lock = new ReentrantLock();
+      private Function<? super K, ?> mapper;  // guarded by the lock, null once all the values are computed
+      private int remaining;  // the number of values to compute, guarded by the lock
+
+      private MapState(ConcurrentHashMap<Object, Object> map, Function<? super K, ?> mapper) {
+        this.map = map;
+        this.mapper = map.isEmpty() ? null : mapper;
+        remaining = map.size();
+      }
+
+      private static boolean isComputed(Object value) {
+        return value != UNINITIALIZED && !(value instanceof FailurePolicy.Failure);
       }
 
       @Override
-      public int indexOf(Object o) {
-        requireNonNull(o);
-        for(var i = 0; i < size; i++) {
-          if (o.equals(get(i))) {
-            return i;
-          }
+      public Object tryGet(Object key) {
+        var value = map.get(key);
+        return value != null && isComputed(value) ? value : null;
+      }
+
+      @Override
+      public Object get(Object key, long timeout) throws Throwable {
+        var value = map.get(key);
+        if (value == null || isComputed(value)) {
+          return value;
+        }
+        if (lock.isHeldByCurrentThread()) {
+          throw new IllegalStateException("cyclic definition");
+        }
+        var arrival = System.nanoTime();
+        if (!lock.tryLock(timeout, NANOSECONDS)) {
+          throw new TimeoutException();
+        }
+        try {
+          return compute(key, arrival);
+        } finally {
+          lock.unlock();
         }
-        return -1;
       }
 
       @Override
-      public int lastIndexOf(Object o) {
-        requireNonNull(o);
-        for(var i = size - 1; i >= 0; i--) {
-          if (o.equals(get(i))) {
-            return i;
+      public Object load(Object key) throws Throwable {
+        var value = map.get(key);
+        if (value == null || isComputed(value)) {
+          return value;
+        }
+        if (lock.isHeldByCurrentThread()) {
+          throw new IllegalStateException("cyclic definition");
+        }
+        var arrival = System.nanoTime();
+        lock.lock();
+        try {
+          return compute(key, arrival);
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      // called with the lock held, returns null if the key is not a key of the map
+      @SuppressWarnings("unchecked")
+      private Object compute(Object key, long arrival) throws Throwable {
+        var value = map.get(key);
+        if (value == null || isComputed(value)) {
+          return value;
+        }
+        var failure = value == UNINITIALIZED ? null : (FailurePolicy.Failure) value;
+        if (failurePolicy.shouldRethrow(failure, arrival)) {
+          throw failure.throwable();
+        }
+        try {
+          value = requireNonNull(mapper.apply((K) key));
+        } catch (Throwable e) {
+          var newFailure = failurePolicy.fail(failure, e);
+          map.put(key, newFailure == null ? UNINITIALIZED : newFailure);
+          throw e;
+        }
+        map.put(key, value);
+        if (--remaining == 0) {
+          mapper = null;  // let the GC collect what the mapper captures
+        }
+        return value;
+      }
+    }
+    var keySet = Set.copyOf(keys);
+    var map = new ConcurrentHashMap<Object, Object>();
+    for(var key : keySet) {
+      map.put(key, MapState.UNINITIALIZED);
+    }
+    var state = new MapState(map, mapper);
+    var mh = new StableMapCache(state, StableMapCache.FOLDABLE_DEPTH).dynamicInvoker();
+    return new ViewMap<>(keySet, mh, state);
+  }
+
+  /**
+   * {@return a new stable map with the provided {@code keys} whose values are loaded by batches}
+   * <p>
+   * The returned map behaves like the one returned by {@link #map(Set, Function)}
+   * but the keys accessed for the first time are collected in a batch and the values
+   * of all the keys of a batch are loaded with one call to the provided {@code loader}.
+   * The first thread that misses a key opens a batch and waits for at most {@code window},
+   * the keys missed by the other threads during that time are added to the batch;
+   * the batch is closed and loaded as soon as it contains {@code batchSize} keys
+   * or when the window elapses. The threads that missed a key of the batch wait until
+   * the batch is loaded.
+   * <p>
+   * The keys missed by a single thread are not coalesced, each miss waits for the window,
+   * so a batch map should be used when the values are accessed by many threads concurrently,
+   * typically to call a remote service that accepts batches of keys.
+   * Only the first 8 values are linked as constants, the other values are read from
+   * the storage of the map.
+   * <p>
+   * The provided {@code loader} is guaranteed to be successfully invoked at most once per key,
+   * even in a multi-threaded environment. The loader must return a map containing a non-null
+   * value for each key of the batch, the other keys are ignored. If the value of a key is
+   * missing, a {@link NullPointerException} is thrown to the threads waiting for that key
+   * and the key will be part of a later batch.
+   * If the provided {@code loader} throws an exception, it is relayed to all the threads
+   * waiting for a key of the batch and no value of the batch is recorded.
+   * If the provided {@code loader} recursively calls the returned map for a key of the
+   * batch being loaded, an {@linkplain IllegalStateException} will be thrown.
+   *
+   * @param keys      the (non-null) keys in the returned map
+   * @param batchSize the maximum number of keys of a batch
+   * @param window    the maximum time to wait for other keys before loading a batch
+   * @param loader    to invoke with the keys of a batch
+   * @param <K>       the type of keys maintained by the returned map
+   * @param <V>       the type of mapped values in the returned map
+   * @throws NullPointerException     if the provided set of {@code keys} contains a
+   *                                  {@code null} element.
+   * @throws IllegalArgumentException if the provided {@code batchSize} is not positive
+   *                                  or if the provided {@code window} is negative.
+   */
+  public static <K,V> StableMap<K,V> batchMap(Set<K> keys, int batchSize, Duration window,
+                                              Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> loader) {
+    requireNonNull(keys);
+    requireNonNull(window);
+    requireNonNull(loader);
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize <= 0");
+    }
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("negative window " + window);
+    }
+    var windowNanos = NANOSECONDS.convert(window);
+    // the values, the batch being collected and the lock of the map
+    final class BatchState implements KeyedAccess {
+      private static final Object UNINITIALIZED = new Object();
+
+      // the keys loaded by one call to the loader
+      private static final class Batch {
+        private final LinkedHashSet<Object> keys = new LinkedHashSet<>();  // guarded by the lock
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private boolean open = true;  // guarded by the lock
+        private Thread loadingThread;  // only read by the loading thread to detect a cycle
+        private Throwable failure;  // published by loaded
+
+        // the interruption of the waiting thread is restored once the batch is loaded
+        private void awaitLoadedUninterruptibly() {
+          var interrupted = false;
+          for(;;) {
+            try {
+              loaded.await();
+              break;
+            } catch (InterruptedException e) {
+              interrupted = true;
+            }
+          }
+          if (interrupted) {
+            Thread.currentThread().interrupt();
           }
         }
-        return -1;
+      }
+
+      private final ConcurrentHashMap<Object, Object> map;  // key -> UNINITIALIZED, the Batch of the key or the value
+      private final ReentrantLock lock = new ReentrantLock();
+      private final Condition full = lock.newCondition();
+      private Batch current;  // the batch collecting the keys, guarded by the lock
+      private Function<? super Set<K>, ? extends Map<? extends K, ?>> loader;  // guarded by the lock, null once all the values are loaded
+      private int remaining;  // the number of values to load, guarded by the lock
+
+      private BatchState(ConcurrentHashMap<Object, Object> map, Function<? super Set<K>, ? extends Map<? extends K, ?>> loader) {
+        this.map = map;
+        this.loader = map.isEmpty() ? null : loader;
+        remaining = map.size();
+      }
+
+      private static boolean isComputed(Object value) {
+        return value != UNINITIALIZED && !(value instanceof Batch);
+      }
+
+      @Override
+      public Object tryGet(Object key) {
+        var value = map.get(key);
+        return value != null && isComputed(value) ? value : null;
       }
 
       @Override
-      public ListIterator<E> listIterator() {
-        return listIterator(0);
+      public Object get(Object key, long timeout) throws Throwable {
+        return get(key, true, timeout);
       }
 
       @Override
-      public ListIterator<E> listIterator(int index) {
-        return new ListIterator<>() {
-          private int index;
+      public Object load(Object key) throws Throwable {
+        return get(key, false, 0);
+      }
 
-          @Override
-          public boolean hasNext() {
-            return index < size;
+      private Object get(Object key, boolean timed, long timeout) throws Throwable {
+        var value = map.get(key);
+        if (value == null || isComputed(value)) {
+          return value;
+        }
+        Batch batch;
+        Function<? super Set<K>, ? extends Map<? extends K, ?>> loader = null;  // non-null if the current thread loads the batch
+        if (!timed) {
+          lock.lock();
+        } else if (!lock.tryLock(timeout, NANOSECONDS)) {
+          throw new TimeoutException();
+        }
+        try {
+          value = map.get(key);
+          if (isComputed(value)) {
+            return value;
           }
-
-          @Override
-          public E next() {
-            if (index < size) {
-              throw new NoSuchElementException();
+          if (value instanceof Batch pending) {
+            batch = pending;
+          } else {
+            batch = current;
+            if (batch == null) {
+              batch = current = new Batch();
+              loader = this.loader;
             }
-            return get(index++);
+            batch.keys.add(key);
+            map.put(key, batch);
+            if (batch.keys.size() >= batchSize) {
+              close(batch);
+            }
+          }
+          if (loader != null) {
+            collect(batch);
+          }
+        } finally {
+          lock.unlock();
+        }
+        if (loader != null) {
+          load(batch, loader);
+        } else {
+          if (batch.loadingThread == Thread.currentThread()) {
+            throw new IllegalStateException("cyclic definition");
           }
+          if (!timed) {
+            batch.awaitLoadedUninterruptibly();
+          } else if (!batch.loaded.await(timeout, NANOSECONDS)) {
+            throw new TimeoutException();
+          }
+        }
+        if (batch.failure != null) {
+          throw batch.failure;
+        }
+        value = map.get(key);
+        if (!isComputed(value)) {
+          throw new NullPointerException("no value loaded for key " + key);
+        }
+        return value;
+      }
+
+      // called with the lock held
+      private void close(Batch batch) {
+        batch.open = false;
+        current = null;
+        full.signal();
+      }
 
-          @Override
-          public boolean hasPrevious() {
-            return index != 0;
+      // called with the lock held by the thread that opened the batch,
+      // waits until the batch is full or the window elapses
+      private void collect(Batch batch) {
+        var remaining = windowNanos;
+        try {
+          while (batch.open && remaining > 0) {
+            remaining = full.awaitNanos(remaining);
           }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();  // load the batch anyway, the other threads are waiting for it
+        }
+        if (batch.open) {
+          close(batch);
+        }
+      }
 
-          @Override
-          public E previous() {
-            if (index == 0) {
-              throw new NoSuchElementException();
+      @SuppressWarnings("unchecked")
+      private void load(Batch batch, Function<? super Set<K>, ? extends Map<? extends K, ?>> loader) {
+        batch.loadingThread = Thread.currentThread();
+        try {
+          var values = loader.apply((Set<K>) Collections.unmodifiableSet(batch.keys));
+          var loaded = 0;
+          for(var key : batch.keys) {
+            var value = values.get(key);
+            map.put(key, value == null ? UNINITIALIZED : value);
+            loaded += value == null ? 0 : 1;
+          }
+          lock.lock();
+          try {
+            remaining -= loaded;
+            if (remaining == 0) {
+              this.loader = null;  // let the GC collect what the loader captures
             }
-            return get(index--);
+          } finally {
+            lock.unlock();
           }
-
-          @Override
-          public int nextIndex() {
-            return index;
+        } catch (Throwable e) {
+          for(var key : batch.keys) {
+            map.put(key, UNINITIALIZED);
           }
+          batch.failure = e;
+        } finally {
+          batch.loaded.countDown();
+        }
+      }
+    }
+    var keySet = Set.copyOf(keys);
+    var map = new ConcurrentHashMap<Object, Object>();
+    for(var key : keySet) {
+      map.put(key, BatchState.UNINITIALIZED);
+    }
+    var state = new BatchState(map, loader);
+    var mh = new StableMapCache(state, StableMapCache.INLINE_DEPTH).dynamicInvoker();
+    return new ViewMap<>(keySet, mh, state);
+  }
 
-          @Override
-          public int previousIndex() {
-            return index - 1;
-          }
+  // maximum size of the inline cache of a memoizing function, C2 does not inline
+  // a longer chain of guards (MaxForceInlineLevel)
+  private static final int MAX_INLINE_CACHE_SIZE = 32;
 
-          @Override
-          public void remove() {
-            throw new UnsupportedOperationException();
-          }
+  /**
+   * {@return a new stable memoizing function with an inline cache of 8 keys}
+   * <p>
+   * The inline cache keeps the first 8 keys that become hot, the keys are never evicted.
+   *
+   * @param mapper to invoke whenever a value associated to a key is first accessed
+   * @param <K>    the type of the keys
+   * @param <V>    the type of the values
+   * @see #memoize(int, Function)
+   */
+  public static <K,V> Function<K,V> memoize(Function<? super K, ? extends V> mapper) {
+    return memoize(8, mapper);
+  }
 
-          @Override
-          public void set(E e) {
-            throw new UnsupportedOperationException();
-          }
+  /**
+   * {@return a new stable memoizing function}
+   * <p>
+   * Unlike {@link #map(Set, Function)}, the set of keys does not have to be known
+   * upfront. The returned function records the value computed by the provided
+   * {@code mapper} when a key is first applied, the values of all the keys are stored
+   * in a concurrent table and the hot keys (at most {@code inlineCacheSize} of them)
+   * are also recorded as constants guarded by an equality check, so a hot key is not
+   * looked up in the table anymore. The JIT does not inline a chain of more than about
+   * 32 guards, so the size of the inline cache is limited to 32 keys.
+   * <p>
+   * A key is hot once it has been looked up in the table 16 times, the hits are counted
+   * without synchronization, so the count is approximate.
+   * The inline cache has no eviction policy: it is filled by the first keys that become hot
+   * and a recorded key is never evicted, even if it is not used anymore. If the distribution
+   * of the keys changes over time, the keys of the inline cache are not the hottest keys,
+   * the other keys are still found in the table.
+   * The guard first compares the keys by identity, so when the key is a constant,
+   * the guard is folded by the JIT, a key equal to a recorded key but not identical
+   * is found by calling {@link Object#equals(Object)} on the recorded key.
+   * <p>
+   * The provided {@code mapper} function is guaranteed to be successfully invoked
+   * at most once per key, even in a multi-threaded environment. Competing
+   * threads accessing a value already under computation will block until a value
+   * is computed or an exception is thrown by the computing thread.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and no value associated with the provided key is recorded.
+   * <p>
+   * If the provided {@code mapper} recursively calls the returned function for
+   * the same key, an {@linkplain IllegalStateException} will be thrown.
+   *
+   * @param inlineCacheSize the maximum number of keys recorded as constants
+   * @param mapper          to invoke whenever a value associated to a key is first accessed
+   * @param <K>             the type of the keys
+   * @param <V>             the type of the values
+   * @throws IllegalArgumentException if the provided {@code inlineCacheSize} is negative
+   *                                  or greater than 32.
+   */
+  @SuppressWarnings("unchecked")
+  public static <K,V> Function<K,V> memoize(int inlineCacheSize, Function<? super K, ? extends V> mapper) {
+    if (inlineCacheSize < 0) {
+      throw new IllegalArgumentException("inlineCacheSize < 0");
+    }
+    if (inlineCacheSize > MAX_INLINE_CACHE_SIZE) {
+      throw new IllegalArgumentException("inlineCacheSize > " + MAX_INLINE_CACHE_SIZE);
+    }
+    requireNonNull(mapper);
+    final class Cell {
+      private final ReentrantLock lock = new ReentrantLock();
+      private volatile Object value;
+      private int hits;  // racy, this is just an hint
+      private boolean inlined;  // racy, this is just an hint
 
-          @Override
-          public void add(E e) {
-            throw new UnsupportedOperationException();
+      @SuppressWarnings("unchecked")
+      private Object value(Object key) {
+        var value = this.value;  // volatile read
+        if (value != null) {
+          return value;
+        }
+        if (lock.isHeldByCurrentThread()) {
+          throw new IllegalStateException("cyclic definition");
+        }
+        lock.lock();
+        try {
+          value = this.value;
+          if (value == null) {
+            value = requireNonNull(mapper.apply((K) key));
+            this.value = value;  // volatile write
           }
-        };
+        } finally {
+          lock.unlock();
+        }
+        return value;
+      }
+    }
+    class StableMemoizedFunctionCache extends MutableCallSite {
+      private static final MethodHandle FALLBACK, TEST;
+      static {
+        var lookup = lookup();
+        try {
+          FALLBACK = lookup.findVirtual(StableMemoizedFunctionCache.class, "fallback", methodType(Object.class, Object.class));
+          TEST = lookup.findStatic(StableMemoizedFunctionCache.class, "test", methodType(boolean.class, Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          throw new AssertionError(e);
+        }
       }
 
-      @Override
-      @SuppressWarnings("unchecked")
-      public List<E> subList(int fromIndex, int toIndex) {
-        return (List<E>) Arrays.asList(toArray()).subList(fromIndex, toIndex);
+      // number of lookups in the table before a key is recorded as a constant
+      private static final int HOT_THRESHOLD = 16;
+
+      private final ConcurrentHashMap<Object, Cell> table;
+      private final int depth;
+      private final ReentrantLock lock = new ReentrantLock();
+      private boolean linked;  // guarded by the lock
+
+      public StableMemoizedFunctionCache(ConcurrentHashMap<Object, Cell> table, int depth) {
+        super(methodType(Object.class, Object.class));
+        setTarget(FALLBACK.bindTo(this));
+        this.table = table;
+        this.depth = depth;
+      }
+
+      // identity first, so a constant key folds, then equality, so an equal key is found
+      private static boolean test(Object expected, Object o) {
+        return expected == o || expected.equals(o);
+      }
+
+      private Object fallback(Object key) {
+        var cell = table.computeIfAbsent(key, _ -> new Cell());
+        var value = cell.value(key);
+        if (depth == inlineCacheSize || cell.inlined || ++cell.hits < HOT_THRESHOLD) {
+          return value;
+        }
+        lock.lock();
+        try {
+          if (linked) {  // another key is already recorded here
+            return value;
+          }
+          linked = true;
+        } finally {
+          lock.unlock();
+        }
+        cell.inlined = true;
+        var target = dropArguments(constant(Object.class, value), 0, Object.class);
+        var fallback = new StableMemoizedFunctionCache(table, depth + 1).dynamicInvoker();
+        setTarget(guardWithTest(TEST.bindTo(key), target, fallback));
+        return value;
+      }
+    }
+    var mh = new StableMemoizedFunctionCache(new ConcurrentHashMap<>(), 0).dynamicInvoker();
+    return key -> {
+      requireNonNull(key);
+      try {
+        return (V) mh.invokeExact((Object) key);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
       }
+    };
+  }
 
-      @Override
-      public boolean add(E e) {
-        throw new UnsupportedOperationException();
+  /**
+   * {@return a new stable function that computes a value per class}
+   * <p>
+   * The returned function records the value computed by the provided {@code mapper}
+   * when a class is first applied. The values are stored with a {@link ClassValue},
+   * so a value does not prevent its class from being unloaded. The first classes
+   * applied (at most 8 of them) are also recorded as constants guarded by an identity
+   * check on the class, so if the returned function is stored in a {@code static final}
+   * field, the value of a constant class folds to a constant and the value of a
+   * class seen at a monomorphic or bimorphic call is obtained without looking up
+   * the class value.
+   * <p>
+   * A class is recorded as a constant only if it can not be unloaded before the class
+   * loader of the provided {@code mapper}, i.e. if it is not a hidden class and if it
+   * is defined by the class loader of the {@code mapper} or one of its ancestors.
+   * The other classes, for example the classes of a plugin loaded by a child class loader,
+   * are always looked up in the class value.
+   * <p>
+   * The provided {@code mapper} function is guaranteed to be successfully invoked
+   * at most once per class, even in a multi-threaded environment. Competing
+   * threads accessing a value already under computation will block until a value
+   * is computed or an exception is thrown by the computing thread.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and no value associated with the provided class is recorded.
+   * <p>
+   * If the provided {@code mapper} recursively calls the returned function for
+   * the same class, an {@linkplain IllegalStateException} will be thrown.
+   *
+   * @param mapper to invoke whenever a value associated to a class is first accessed
+   * @param <V>    the type of the values
+   */
+  @SuppressWarnings("unchecked")
+  public static <V> Function<Class<?>, V> perClass(Function<? super Class<?>, ? extends V> mapper) {
+    requireNonNull(mapper);
+    // the value of a class, computed at most once
+    final class Cell {
+      private final ReentrantLock lock = new ReentrantLock();
+      private volatile Object value;
+
+      private Object value(Class<?> type) {
+        var value = this.value;  // volatile read
+        if (value != null) {
+          return value;
+        }
+        if (lock.isHeldByCurrentThread()) {
+          throw new IllegalStateException("cyclic definition");
+        }
+        lock.lock();
+        try {
+          value = this.value;
+          if (value == null) {
+            value = requireNonNull(mapper.apply(type));
+            this.value = value;  // volatile write
+          }
+        } finally {
+          lock.unlock();
+        }
+        return value;
       }
-
-      @Override
-      public boolean remove(Object o) {
-        throw new UnsupportedOperationException();
+    }
+    class StablePerClassCache extends MutableCallSite {
+      private static final int INLINE_DEPTH = 8;
+      private static final MethodHandle FALLBACK, TEST;
+      static {
+        var lookup = lookup();
+        try {
+          FALLBACK = lookup.findVirtual(StablePerClassCache.class, "fallback", methodType(Object.class, Class.class));
+          TEST = lookup.findStatic(StablePerClassCache.class, "test", methodType(boolean.class, Class.class, Class.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          throw new AssertionError(e);
+        }
       }
 
-      @Override
-      public boolean addAll(Collection<? extends E> c) {
-        throw new UnsupportedOperationException();
-      }
+      private final ClassValue<Cell> cells;
+      private final ClassLoader loader;  // the class loader of the mapper
+      private final int depth;
+      private final ReentrantLock lock = new ReentrantLock();
+      private boolean linked;  // guarded by the lock
 
-      @Override
-      public boolean addAll(int index, Collection<? extends E> c) {
-        throw new UnsupportedOperationException();
+      public StablePerClassCache(ClassValue<Cell> cells, ClassLoader loader, int depth) {
+        super(methodType(Object.class, Class.class));
+        setTarget(FALLBACK.bindTo(this));
+        this.cells = cells;
+        this.loader = loader;
+        this.depth = depth;
       }
 
-      @Override
-      public boolean removeAll(Collection<?> c) {
-        throw new UnsupportedOperationException();
+      private static boolean test(Class<?> expected, Class<?> type) {
+        return expected == type;
       }
 
-      @Override
-      public boolean retainAll(Collection<?> c) {
-        throw new UnsupportedOperationException();
+      // true if the class can not be unloaded before the classes of the class loader
+      private static boolean outlives(Class<?> type, ClassLoader loader) {
+        if (type.isHidden()) {
+          return false;
+        }
+        var typeLoader = type.getClassLoader();
+        if (typeLoader == null) {  // bootstrap class loader
+          return true;
+        }
+        for(var parent = loader; parent != null; parent = parent.getParent()) {
+          if (parent == typeLoader) {
+            return true;
+          }
+        }
+        return false;
       }
 
-      @Override
-      public void clear() {
-        throw new UnsupportedOperationException();
+      private Object fallback(Class<?> type) {
+        var value = cells.get(type).value(type);
+        if (depth == INLINE_DEPTH || !outlives(type, loader)) {
+          return value;
+        }
+        lock.lock();
+        try {
+          if (linked) {  // another class is already recorded here
+            return value;
+          }
+          linked = true;
+        } finally {
+          lock.unlock();
+        }
+        var target = dropArguments(constant(Object.class, value), 0, Class.class);
+        var fallback = new StablePerClassCache(cells, loader, depth + 1).dynamicInvoker();
+        setTarget(guardWithTest(TEST.bindTo(type), target, fallback));
+        return value;
       }
-
+    }
+    var cells = new ClassValue<Cell>() {
       @Override
-      public E set(int index, E element) {
-        throw new UnsupportedOperationException();
+      protected Cell computeValue(Class<?> type) {
+        return new Cell();
       }
-
-      @Override
-      public void add(int index, E element) {
-        throw new UnsupportedOperationException();
+    };
+    var mh = new StablePerClassCache(cells, mapper.getClass().getClassLoader(), 0).dynamicInvoker();
+    return type -> {
+      requireNonNull(type);
+      try {
+        return (V) mh.invokeExact(type);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
       }
+    };
+  }
 
-      @Override
-      public E remove(int index) {
-        throw new UnsupportedOperationException();
-      }
-    }
-    @SuppressWarnings("unchecked")
-    var array = (E[]) new Object[size];
-    var mh = new StableIntFunctionCache(array).dynamicInvoker();
-    return new ViewList<>(size, mh);
+  private enum CleanerHolder {
+    ;
+    private static final Cleaner CLEANER = Cleaner.create();
   }
 
+  // number of reads through the soft reference before an unlinked soft value is linked again
+  private static final int SOFT_RELINK_THRESHOLD = 16;
+  // maximum number of elements of a soft list linked at the same time, C2 does not inline
+  // a longer chain of guards (MaxForceInlineLevel)
+  private static final int SOFT_LINKED_DEPTH = 32;
+
   /**
-   * {@return a new stable map with the provided {@code keys}}
-   * <p>
-   * The returned map is an {@linkplain Collection##unmodifiable unmodifiable} map whose
-   * keys are known at construction. The map's values are computed via the provided
-   * {@code mapper} when they are first accessed
-   * (e.g. via {@linkplain Map#get(Object) Map::get}).
+   * {@return a new soft stable supplier}
    * <p>
-   * The provided {@code mapper} function is guaranteed to be successfully invoked
-   * at most once per key, even in a multi-threaded environment. Competing
-   * threads accessing a value already under computation will block until an element
-   * is computed or an exception is thrown by the computing thread.
+   * The returned {@linkplain Supplier supplier} is a caching supplier that records
+   * the value of the provided {@code original} supplier upon being first accessed via
+   * the returned supplier's {@linkplain Supplier#get() get()} method, like
+   * {@link #supplier(Supplier)}. Unlike {@link #supplier(Supplier)}, the recorded
+   * value is released when the garbage collector clears
+   * {@linkplain SoftReference soft references} because it needs memory,
+   * the value is then transparently recomputed by the next call to
+   * {@linkplain Supplier#get() get()}.
    * <p>
-   * If the provided {@code mapper} throws an exception, it is relayed to the initial
-   * caller and no value associated with the provided key is recorded.
+   * The value is recorded as a constant of a call site, so it is constant folded by the JIT
+   * while it is used. The garbage collector can not see the reads of a constant, so
+   * from time to time, when the garbage collector clears a soft reference to a sentinel
+   * object, the value is unlinked and only kept {@linkplain SoftReference softly reachable}.
+   * The next reads go through the soft reference, so the garbage collector knows that
+   * the value is used, and if the value is still used, it is linked as a constant again
+   * without being recomputed. A value that is not used anymore is released like any
+   * softly reachable object, so it takes two garbage collections to release a value.
    * <p>
-   * Any direct {@link Map#values()} or {@link Map#entrySet()} views
-   * of the returned map are also stable.
+   * The provided {@code original} supplier is guaranteed to be invoked
+   * by at most one thread at a time even in a multi-threaded environment.
+   * Competing threads invoking the returned supplier's {@linkplain Supplier#get() get()}
+   * method when a value is under computation will block until a value is computed or
+   * an exception is thrown by the computing thread.
    * <p>
-   * The returned map is unmodifiable and does not implement the
-   * {@linkplain Collection##optional-operations optional operations} in the
-   * {@linkplain Map} interface.
+   * If the provided {@code original} supplier throws an exception, it is relayed
+   * to the initial caller and no content is recorded.
    * <p>
-   * If the provided {@code mapper} recursively calls the returned map for
-   * the same key, an {@linkplain IllegalStateException} will be thrown.
+   * If the provided {@code original} supplier recursively calls the returned
+   * supplier, an {@linkplain IllegalStateException} will be thrown.
    *
-   * @param keys   the (non-null) keys in the returned map
-   * @param mapper to invoke whenever an associated value is first accessed
-   *               (may return {@code null})
-   * @param <K>    the type of keys maintained by the returned map
-   * @param <V>    the type of mapped values in the returned map
-   * @throws NullPointerException if the provided set of {@code inputs} contains a
-   *                              {@code null} element.
+   * @param original supplier used to compute a cached value
+   * @param <T>      the type of results supplied by the returned supplier
    */
-  public static <K,V> Map<K,V> map(Set<K> keys, Function<? super K, ? extends V> mapper) {
-    requireNonNull(keys);
-    requireNonNull(mapper);
-    class StableKeyedFunctionCache extends MutableCallSite {
-      private static final MethodHandle FALLBACK, TEST;
+  @SuppressWarnings("unchecked")
+  public static <T> Supplier<T> softSupplier(Supplier<? extends T> original) {
+    requireNonNull(original);
+    class SoftValueCache extends MutableCallSite {
+      private static final MethodHandle FALLBACK, READ;
       static {
         var lookup = lookup();
         try {
-          FALLBACK = lookup.findVirtual(StableKeyedFunctionCache.class, "fallback", methodType(Object.class, Object.class));
-          TEST = lookup.findStatic(StableKeyedFunctionCache.class, "test", methodType(boolean.class, Object.class, Object.class));
+          FALLBACK = lookup.findVirtual(SoftValueCache.class, "fallback", methodType(Object.class));
+          READ = lookup.findVirtual(SoftValueCache.class, "read", methodType(Object.class, SoftReference.class));
         } catch (NoSuchMethodException | IllegalAccessException e) {
           throw new AssertionError(e);
         }
       }
 
-      private static final Object UNINITIALIZED = new Object();
-
-      private final Map<K, Object> map ;
+      private final ReentrantLock lock = new ReentrantLock();
+      private SoftReference<Object> ref;  // the value, guarded by the lock, null if not computed
+      // while the value is linked as a constant, the GC clears a soft reference to a sentinel
+      // instead of the value and the cleaner unlinks the value
+      private SoftReference<Object> sentinel;  // guarded by the lock
+      private int generation;  // guarded by the lock, incremented each time the value is linked
+      private int hits;  // racy, this is just an hint
 
-      public StableKeyedFunctionCache(Map<K, Object> map) {
-        super(methodType(Object.class, Object.class));
+      public SoftValueCache() {
+        super(methodType(Object.class));
         setTarget(FALLBACK.bindTo(this));
-        this.map = map;
       }
 
-      private static boolean test(Object expected, Object o) {
-        return expected == o;
+      // the value is not linked, reading it through the soft reference tells the GC that it is used
+      private Object read(SoftReference<?> ref) {
+        var value = ref.get();
+        if (value == null) {
+          return fallback();
+        }
+        if (++hits >= SOFT_RELINK_THRESHOLD && lock.tryLock()) {
+          try {
+            if (this.ref == ref && sentinel == null) {
+              link(value);
+            }
+          } finally {
+            lock.unlock();
+          }
+        }
+        return value;
       }
 
-      @SuppressWarnings("unchecked")
-      private Object fallback(Object key) {
-        if (Thread.holdsLock(this)) {
+      private Object fallback() {
+        if (lock.isHeldByCurrentThread()) {
           throw new IllegalStateException("cyclic definition");
         }
-        Object value;
-        synchronized (this) {
-          value = map.get(key);
+        lock.lock();
+        try {
+          var value = ref == null ? null : ref.get();
           if (value == null) {
-            return null;
+            value = requireNonNull(original.get());
+            ref = new SoftReference<>(value);
           }
-          if (value == UNINITIALIZED) {
-            value = requireNonNull(mapper.apply((K) key));
-            map.put((K) key, value);
+          link(value);
+          return value;
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      // called with the lock held
+      private void link(Object value) {
+        var generation = ++this.generation;
+        hits = 0;
+        var sentinel = new Object();
+        this.sentinel = new SoftReference<>(sentinel);
+        var cacheRef = new WeakReference<>(this);  // the cleaner should not retain the call site
+        CleanerHolder.CLEANER.register(sentinel, () -> {
+          var cache = cacheRef.get();
+          if (cache != null) {
+            cache.unlink(generation);
+          }
+        });
+        setTarget(constant(Object.class, value));
+      }
+
+      // called by the cleaner thread
+      private void unlink(int generation) {
+        lock.lock();
+        try {
+          if (this.generation != generation) {  // already linked again
+            return;
           }
+          sentinel = null;
+          ref.get();  // tells the GC that the value was used until now
+          setTarget(insertArguments(READ, 0, this, ref));
+        } finally {
+          lock.unlock();
         }
-        var target = dropArguments(constant(Object.class, value), 0, Object.class);
-        var guard = guardWithTest(TEST.bindTo(key), target, new StableKeyedFunctionCache(map).dynamicInvoker());
-        setTarget(guard);  // this part is racy but we do not care
-        return value;
       }
     }
-    var keySet = Set.copyOf(keys);
-    var map = keySet.stream().collect(toMap(k -> k, _ -> StableKeyedFunctionCache.UNINITIALIZED));
-    record ViewMap<K,V>(Set<K> keys, MethodHandle mh) implements Map<K,V> {
+    var mh = new SoftValueCache().dynamicInvoker();
+    return () -> {
+      try {
+        return (T) mh.invokeExact();
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new UndeclaredThrowableException(e);
+      }
+    };
+  }
+
+  /**
+   * {@return a new soft stable list with the provided {@code size}}
+   * <p>
+   * The returned list is an {@linkplain Collection##unmodifiable unmodifiable} list
+   * with the provided {@code size}. The list's elements are computed via the
+   * provided {@code mapper} when they are first accessed
+   * (e.g. via {@linkplain List#get(int) List::get}), like {@link #list(int, IntFunction)}.
+   * Unlike {@link #list(int, IntFunction)}, an element is released when the garbage
+   * collector clears {@linkplain SoftReference soft references} because it needs memory,
+   * the element is then transparently recomputed when it is accessed again.
+   * <p>
+   * Like with {@link #softSupplier(Supplier)}, the elements are recorded as constants
+   * guarded by their index while they are used, and are regularly unlinked so the
+   * garbage collector can see which elements are still read through their soft reference.
+   * <p>
+   * {@link StableList#tryGet(int)} returns an empty optional if the element is not computed
+   * or if it has been released, {@link StableList#get(int, Duration)} computes it again.
+   * <p>
+   * The provided {@code mapper} int function is guaranteed to be invoked by at most one
+   * thread at a time, even in a multi-threaded environment. Competing threads accessing
+   * an element already under computation will block until an element is computed or an
+   * exception is thrown by the computing thread.
+   * <p>
+   * If the provided {@code mapper} throws an exception, it is relayed to the initial
+   * caller and no value for the element is recorded.
+   * <p>
+   * The returned list is unmodifiable and does not implement the
+   * {@linkplain Collection##optional-operation optional operations} in the
+   * {@linkplain List} interface.
+   * <p>
+   * If the provided {@code mapper} recursively calls the returned list for the
+   * same index, an {@linkplain IllegalStateException} will be thrown.
+   *
+   * @param size   the size of the returned list
+   * @param mapper to invoke whenever an element is accessed and not recorded
+   * @param <E>    the type of elements in the returned list
+   * @throws IllegalArgumentException if the provided {@code size} is negative.
+   */
+  public static <E> StableList<E> softList(int size, IntFunction<? extends E> mapper) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    requireNonNull(mapper);
+    // the soft references to the elements and the lock of the list
+    final class SoftState implements IndexedState {
+      private static final VarHandle REFS = arrayElementVarHandle(SoftReference[].class);
+
+      private final SoftReference<?>[] refs;  // written with the lock held
+      private final ReentrantLock lock = new ReentrantLock();
+
+      private SoftState(int size) {
+        refs = new SoftReference<?>[size];
+      }
+
       @Override
-      public int size() {
-        return keys.size();
+      public ReentrantLock lock() {
+        return lock;
       }
 
       @Override
-      public boolean isEmpty() {
-        return keys.isEmpty();
+      public Object read(int index) {
+        var ref = (SoftReference<?>) REFS.getAcquire(refs, index);
+        return ref == null ? null : ref.get();
       }
 
       @Override
-      public boolean equals(Object obj) {
-        if ((!(obj instanceof Map<?, ?> m))) {
-          return false;
+      public Object compute(int index, long arrival) {
+        var ref = refs[index];
+        var value = ref == null ? null : ref.get();
+        if (value == null) {
+          value = requireNonNull(mapper.apply(index));
+          REFS.setRelease(refs, index, new SoftReference<>(value));
+        }
+        return value;
+      }
+    }
+    // the linked elements are constants guarded by their index, the other elements are read
+    // through their soft reference, at most SOFT_LINKED_DEPTH elements are linked at the same time
+    final class SoftListCache extends MutableCallSite {
+      private static final MethodHandle READ, TEST;
+      static {
+        var lookup = lookup();
+        try {
+          READ = lookup.findVirtual(SoftListCache.class, "read", methodType(Object.class, int.class));
+          TEST = lookup.findStatic(SoftListCache.class, "test", methodType(boolean.class, int.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          throw new AssertionError(e);
         }
-        return Map.copyOf(this).equals(m);
       }
 
-      @Override
-      public int hashCode() {
-        return Map.copyOf(this).hashCode();
+      private final SoftState state;
+      private final int[] hits;  // racy, this is just an hint
+      private final SoftReference<?>[] sentinels;  // see softSupplier(), guarded by the lock of the state
+      private final ArrayList<Integer> linked = new ArrayList<>();  // guarded by the lock of the state
+      private int depth;  // guarded by the lock of the state, number of guards in the target
+      private int epoch;  // guarded by the lock of the state, incremented each time the elements are unlinked
+
+      private SoftListCache(SoftState state) {
+        super(methodType(Object.class, int.class));
+        this.state = state;
+        hits = new int[state.refs.length];
+        sentinels = new SoftReference<?>[state.refs.length];
+        setTarget(READ.bindTo(this));
       }
 
-      @Override
-      public String toString() {
-        return Map.copyOf(this).toString();
+      private static boolean test(int expected, int index) {
+        return expected == index;
       }
 
-      @Override
-      public boolean containsKey(Object key) {
-        requireNonNull(key);
-        return keys.contains(key);
+      // the element is not linked, reading it through the soft reference tells the GC that it is used
+      private Object read(int index) throws Throwable {
+        var value = state.read(index);
+        if (value == null) {
+          return fallback(index);
+        }
+        var lock = state.lock;
+        if (++hits[index] >= SOFT_RELINK_THRESHOLD && lock.tryLock()) {
+          try {
+            if (sentinels[index] == null && depth < SOFT_LINKED_DEPTH) {
+              link(index, value);
+            }
+            hits[index] = 0;
+          } finally {
+            lock.unlock();
+          }
+        }
+        return value;
       }
 
-      @Override
-      public boolean containsValue(Object value) {
-        requireNonNull(value);
-        return get(value) != null;
+      private Object fallback(int index) throws Throwable {
+        var lock = state.lock;
+        if (lock.isHeldByCurrentThread()) {
+          throw new IllegalStateException("cyclic definition");
+        }
+        lock.lock();
+        try {
+          var value = state.compute(index, 0);
+          if (sentinels[index] == null && depth < SOFT_LINKED_DEPTH) {
+            link(index, value);
+          }
+          return value;
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      // called with the lock held
+      private void link(int index, Object value) {
+        var epoch = this.epoch;
+        var sentinel = new Object();
+        sentinels[index] = new SoftReference<>(sentinel);
+        linked.add(index);
+        depth++;
+        var cacheRef = new WeakReference<>(this);  // the cleaner should not retain the call site
+        CleanerHolder.CLEANER.register(sentinel, () -> {
+          var cache = cacheRef.get();
+          if (cache != null) {
+            cache.unlink(epoch);
+          }
+        });
+        var target = dropArguments(constant(Object.class, value), 0, int.class);
+        setTarget(guardWithTest(insertArguments(TEST, 0, index), target, getTarget()));
+      }
+
+      // called by the cleaner thread, unlinks all the elements, the elements still used
+      // will be linked again
+      private void unlink(int epoch) {
+        var lock = state.lock;
+        lock.lock();
+        try {
+          if (this.epoch != epoch) {  // already unlinked
+            return;
+          }
+          this.epoch++;
+          for(var index : linked) {
+            sentinels[index] = null;
+            state.refs[index].get();  // tells the GC that the element was used until now
+          }
+          linked.clear();
+          depth = 0;
+          setTarget(READ.bindTo(this));
+        } finally {
+          lock.unlock();
+        }
       }
+    }
+    var state = new SoftState(size);
+    return new ViewList<>(size, new SoftListCache(state).dynamicInvoker(), state);
+  }
 
+  /**
+   * {@return a new quasi constant initialized with the provided {@code initial} value}
+   * <p>
+   * The returned {@link QuasiConstant} records its value as the constant of a call site,
+   * so the value is constant folded by the JIT when the quasi constant is stored
+   * in a {@code static final} field.
+   * <p>
+   * {@link QuasiConstant#update(Object) update(newValue)} changes the target of the call
+   * site and publishes it to all threads with {@link MutableCallSite#syncAll(MutableCallSite[])},
+   * so all the compiled code that depends on the previous value is deoptimized.
+   * Updates are serialized, the cost is paid by the writers, not the readers.
+   *
+   * @param initial the initial value
+   * @param <T>     the type of the value
+   * @throws NullPointerException if {@code initial} is null
+   */
+  public static <T> QuasiConstant<T> quasiConstant(T initial) {
+    requireNonNull(initial);
+    record QuasiConstantImpl<T>(MutableCallSite callSite, MethodHandle mh, ReentrantLock lock)
+        implements QuasiConstant<T> {
       @Override
       @SuppressWarnings("unchecked")
-      public V get(Object key) {
-        requireNonNull(key);
+      public T get() {
         try {
-          return (V) mh.invokeExact(key);
+          return (T) mh.invokeExact();
         } catch (RuntimeException | Error e) {
           throw e;
         } catch (Throwable e) {
@@ -551,84 +2989,83 @@ public final class RemiStableValue {
       }
 
       @Override
-      public Set<K> keySet() {
-        return keys;
+      public void update(T newValue) {
+        requireNonNull(newValue);
+        lock.lock();
+        try {
+          callSite.setTarget(constant(Object.class, newValue));
+          MutableCallSite.syncAll(new MutableCallSite[] { callSite });
+        } finally {
+          lock.unlock();
+        }
       }
 
       @Override
-      public Collection<V> values() {
-        return new AbstractCollection<V>() {
-          @Override
-          public int size() {
-            return keys.size();
-          }
-
-          @Override
-          public Iterator<V> iterator() {
-            var it = keys.iterator();
-            return new Iterator<>() {
-              @Override
-              public boolean hasNext() {
-                return it.hasNext();
-              }
-
-              @Override
-              public V next() {
-                return get(it.next());
-              }
-            };
-          }
-        };
+      public String toString() {
+        return "QuasiConstant[" + get() + "]";
       }
+    }
+    var callSite = new MutableCallSite(constant(Object.class, initial));
+    return new QuasiConstantImpl<>(callSite, callSite.dynamicInvoker(), new ReentrantLock());
+  }
 
+  /**
+   * {@return a new stable flag initialized with the provided {@code initial} value}
+   * <p>
+   * The returned {@link StableFlag} records its state as the constant of a call site,
+   * so when the flag is stored in a {@code static final} field,
+   * {@code if (FLAG.isEnabled())} is compiled without any test and
+   * the branch that is not taken is removed.
+   * <p>
+   * Enabling a disabled flag or disabling an enabled flag changes the target of the call
+   * site and publishes it to all threads with {@link MutableCallSite#syncAll(MutableCallSite[])},
+   * so the compiled code that depends on the flag is invalidated once per flip.
+   * Enabling an enabled flag or disabling a disabled flag does nothing.
+   *
+   * @param initial the initial state of the flag
+   */
+  public static StableFlag flag(boolean initial) {
+    record StableFlagImpl(MutableCallSite callSite, MethodHandle mh, ReentrantLock lock) implements StableFlag {
       @Override
-      public Set<Entry<K, V>> entrySet() {
-        return new AbstractSet<>() {
-          @Override
-          public int size() {
-            return ViewMap.this.keys.size();
-          }
-
-          @Override
-          public Iterator<Entry<K, V>> iterator() {
-            var it = keys.iterator();
-            return new Iterator<>() {
-              @Override
-              public boolean hasNext() {
-                return it.hasNext();
-              }
-
-              @Override
-              public Entry<K,V> next() {
-                var key = it.next();
-                return Map.entry(key, get(key));
-              }
-            };
-          }
-        };
+      public boolean isEnabled() {
+        try {
+          return (boolean) mh.invokeExact();
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new UndeclaredThrowableException(e);
+        }
       }
 
-      @Override
-      public V put(K key, V value) {
-        throw new UnsupportedOperationException();
+      private void flip(boolean enabled) {
+        lock.lock();
+        try {
+          if (isEnabled() == enabled) {
+            return;
+          }
+          callSite.setTarget(constant(boolean.class, enabled));
+          MutableCallSite.syncAll(new MutableCallSite[] { callSite });
+        } finally {
+          lock.unlock();
+        }
       }
 
       @Override
-      public V remove(Object key) {
-        throw new UnsupportedOperationException();
+      public void enable() {
+        flip(true);
       }
 
       @Override
-      public void putAll(Map<? extends K, ? extends V> m) {
-        throw new UnsupportedOperationException();
+      public void disable() {
+        flip(false);
       }
 
       @Override
-      public void clear() {
-        throw new UnsupportedOperationException();
+      public String toString() {
+        return "StableFlag[" + isEnabled() + "]";
       }
     }
-    var mh = new StableKeyedFunctionCache(map).dynamicInvoker();
-    return new ViewMap<>(keySet, mh);
+    var callSite = new MutableCallSite(constant(boolean.class, initial));
+    return new StableFlagImpl(callSite, callSite.dynamicInvoker(), new ReentrantLock());
   }
 }
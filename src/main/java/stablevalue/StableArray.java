@@ -0,0 +1,48 @@
+package stablevalue;
+
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A stable array, a fixed-size array indexed by a {@code long} whose elements
+ * are computed once, when they are first accessed.
+ * <p>
+ * The variants {@link OfLong} and {@link OfDouble} store the elements off-heap,
+ * so a stable array can have more than {@link Integer#MAX_VALUE} elements
+ * and its elements are not scanned by the GC.
+ *
+ * @see RemiStableValue#offHeapLongArray(long, LongUnaryOperator)
+ * @see RemiStableValue#offHeapDoubleArray(long, LongToDoubleFunction)
+ */
+public interface StableArray {
+  /**
+   * {@return the number of elements of the array}
+   */
+  long size();
+
+  /**
+   * A stable array of {@code long}s.
+   */
+  interface OfLong extends StableArray {
+    /**
+     * {@return the element at {@code index}, computing it if necessary}
+     *
+     * @param index the index of the element
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    long getLong(long index);
+  }
+
+  /**
+   * A stable array of {@code double}s.
+   */
+  interface OfDouble extends StableArray {
+    /**
+     * {@return the element at {@code index}, computing it if necessary}
+     *
+     * @param index the index of the element
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    double getDouble(long index);
+  }
+}
@@ -0,0 +1,192 @@
+package stablevalue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An implementation of the stable suppliers, lists and maps.
+ * <p>
+ * The same stable value does not have the same performance depending on where it is stored.
+ * Stored in a static final field, a stable value of {@link RemiStableValue} is folded to a constant
+ * by the JIT, but stored in an instance field, the call through the call site is slower than
+ * a double-checked locking with an acquire read.
+ * There are three backends
+ * <ul>
+ *   <li>{@link #callSite()}, the stable values of {@link RemiStableValue}, the best when the
+ *       stable value is stored in a static final field,
+ *   <li>{@link #varHandle()}, a double-checked locking, the best when the stable value is stored
+ *       in an instance field,
+ *   <li>{@link #jdk()}, the stable values of the JDK ({@code java.lang.StableValue}), only available
+ *       since JDK 25 with {@code --enable-preview}.
+ * </ul>
+ * Other backends can be provided as {@linkplain ServiceLoader services}.
+ * <p>
+ * The backend is usually selected by {@link #current()}, either explicitly with the system property
+ * {@value #PROPERTY} or, if the property is not set, depending on the context of the caller.
+ * <pre>
+ * private static final Supplier&lt;Logger&gt; LOGGER = StableBackend.current().supplier(Logger::create);
+ * </pre>
+ * <p>
+ * All the backends have the semantics of {@link RemiStableValue#supplier(Supplier)},
+ * {@link RemiStableValue#list(int, IntFunction)} and {@link RemiStableValue#map(Set, Function)},
+ * a value is computed at most once, a computed value can not be null and a recursive computation
+ * of the same value throws an {@link IllegalStateException}.
+ */
+public interface StableBackend {
+  /**
+   * The name of the system property used to select a backend by {@link #current()}
+   * and {@link #select(Usage)}, either {@code callsite}, {@code varhandle}, {@code jdk},
+   * the name of a backend provided as a service or {@code auto}.
+   */
+  String PROPERTY = "stablevalue.backend";
+
+  /**
+   * The way a stable value is stored.
+   */
+  enum Usage {
+    /**
+     * The stable value is stored in a static final field.
+     */
+    STATIC,
+    /**
+     * The stable value is stored in an instance field or a local variable.
+     */
+    INSTANCE
+  }
+
+  /**
+   * {@return the name of this backend}
+   */
+  String name();
+
+  /**
+   * {@return a new stable supplier}
+   *
+   * @param original the supplier computing the value
+   * @param <T>      the type of the value
+   * @see RemiStableValue#supplier(Supplier)
+   */
+  <T> Supplier<T> supplier(Supplier<? extends T> original);
+
+  /**
+   * {@return a new stable list}
+   *
+   * @param size   the size of the list
+   * @param mapper the function computing an element from its index
+   * @param <E>    the type of the elements
+   * @see RemiStableValue#list(int, IntFunction)
+   */
+  <E> List<E> list(int size, IntFunction<? extends E> mapper);
+
+  /**
+   * {@return a new stable map}
+   *
+   * @param keys   the keys of the map
+   * @param mapper the function computing a value from its key
+   * @param <K>    the type of the keys
+   * @param <V>    the type of the values
+   * @see RemiStableValue#map(Set, Function)
+   */
+  <K, V> Map<K, V> map(Set<K> keys, Function<? super K, ? extends V> mapper);
+
+  /**
+   * {@return the backend based on the call sites of {@link RemiStableValue}}
+   */
+  static StableBackend callSite() {
+    return CallSiteStableBackend.INSTANCE;
+  }
+
+  /**
+   * {@return the backend based on a double-checked locking with a var handle}
+   */
+  static StableBackend varHandle() {
+    return VarHandleStableBackend.INSTANCE;
+  }
+
+  /**
+   * {@return the backend delegating to the stable values of the JDK}
+   * The stable values of the JDK are a preview API of JDK 25, so calling a method of this
+   * backend requires {@code --enable-preview}.
+   */
+  static StableBackend jdk() {
+    return JdkStableBackend.INSTANCE;
+  }
+
+  /**
+   * {@return the backend named {@code name}}
+   * The name is either the name of a predefined backend or the name of a backend
+   * provided as a {@linkplain ServiceLoader service}.
+   *
+   * @param name the name of the backend
+   * @throws IllegalArgumentException if there is no backend with that name
+   */
+  static StableBackend of(String name) {
+    requireNonNull(name);
+    return switch (name) {
+      case "callsite" -> callSite();
+      case "varhandle" -> varHandle();
+      case "jdk" -> jdk();
+      default -> {
+        for(var backend : ServiceLoader.load(StableBackend.class)) {
+          if (backend.name().equals(name)) {
+            yield backend;
+          }
+        }
+        throw new IllegalArgumentException("unknown backend " + name);
+      }
+    };
+  }
+
+  /**
+   * {@return the backend to use for a stable value stored as specified by {@code usage}}
+   * If the system property {@value #PROPERTY} is set to a value other than {@code auto},
+   * the backend named by the property is returned, otherwise the backend is
+   * {@link #callSite()} for {@link Usage#STATIC} and {@link #varHandle()} for {@link Usage#INSTANCE}.
+   *
+   * @param usage the way the stable value is stored
+   * @throws IllegalArgumentException if the system property does not name a backend
+   */
+  static StableBackend select(Usage usage) {
+    requireNonNull(usage);
+    var name = System.getProperty(PROPERTY, "auto");
+    if (!name.equals("auto")) {
+      return of(name);
+    }
+    return switch (usage) {
+      case STATIC -> callSite();
+      case INSTANCE -> varHandle();
+    };
+  }
+
+  /**
+   * {@return the backend to use for a stable value created by the caller}
+   * The usage is detected from the caller, the first frame of the stack outside of this package,
+   * a stable value created by a static initializer is considered as stored in a static final field,
+   * otherwise it is considered as stored in an instance field.
+   * Only the first frame is checked, so a stable value created by a helper method called from
+   * a static initializer is considered as stored in an instance field, such a helper should use
+   * {@link #select(Usage)} instead.
+   * The stack of the caller is walked, so this method should be called once per stable value,
+   * when the stable value is created.
+   *
+   * @throws IllegalArgumentException if the system property {@value #PROPERTY} does not name a backend
+   * @see #select(Usage)
+   */
+  static StableBackend current() {
+    var prefix = StableBackend.class.getPackageName() + ".";
+    var isStaticInit = StackWalker.getInstance()
+        .walk(frames -> frames
+            .filter(frame -> !frame.getClassName().startsWith(prefix))
+            .findFirst()
+            .map(frame -> frame.getMethodName().equals("<clinit>"))
+            .orElse(false));
+    return select(isStaticInit ? Usage.STATIC : Usage.INSTANCE);
+  }
+}
@@ -0,0 +1,137 @@
+package stablevalue;
+
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An updater that lazily initializes a field of a class, in the style of
+ * {@link java.util.concurrent.atomic.AtomicReferenceFieldUpdater}.
+ * <p>
+ * The field is a plain non-final field of a reference type declared by the user class,
+ * {@code null} meaning that the field is not yet initialized.
+ * Unlike {@link RemiStableValue#supplier(java.util.function.Supplier)} stored in a field,
+ * the updater does not allocate any object per instance.
+ * <pre>
+ * class Payload {
+ *   private static final StableFieldUpdater&lt;Payload, Document&gt; DOCUMENT =
+ *       StableFieldUpdater.of(MethodHandles.lookup(), Payload.class, "document", Document.class, Payload::parse);
+ *
+ *   private final String text;
+ *   private Document document;  // lazily initialized
+ *
+ *   ...
+ *   public Document document() {
+ *     return DOCUMENT.get(this);
+ *   }
+ * }
+ * </pre>
+ * <p>
+ * The provided {@code computer} function is guaranteed to be successfully invoked
+ * at most once per instance, even in a multi-threaded environment. Competing
+ * threads accessing a field already under computation will block until a value
+ * is computed or an exception is thrown by the computing thread.
+ * The computation is done while holding the monitor of the instance.
+ * <p>
+ * If the provided {@code computer} throws an exception, it is relayed to the initial
+ * caller and the field is not initialized.
+ * <p>
+ * If the provided {@code computer} recursively calls {@link #get(Object)}
+ * for the same instance, an {@linkplain IllegalStateException} will be thrown.
+ *
+ * @param <T> the type of the instances containing the field
+ * @param <V> the type of the field
+ */
+public interface StableFieldUpdater<T, V> {
+  /**
+   * {@return the value of the field of {@code instance}, computing it if necessary}
+   * The fast path is an acquire read of the field.
+   *
+   * @param instance the instance containing the field
+   * @throws NullPointerException if {@code instance} is null or if the computed value is null
+   */
+  V get(T instance);
+
+  /**
+   * {@return a new updater for the field named {@code name} of the class {@code type}}
+   *
+   * @param lookup    a lookup that can access the field
+   * @param type      the class declaring the field
+   * @param name      the name of the field
+   * @param fieldType the type of the field
+   * @param computer  the function computing the value of the field of an instance
+   * @param <T>       the type of the instances containing the field
+   * @param <V>       the type of the field
+   * @throws IllegalArgumentException if the field does not exist, is not accessible,
+   *                                  is static, is final or has a primitive type
+   */
+  static <T, V> StableFieldUpdater<T, V> of(Lookup lookup, Class<T> type, String name,
+                                            Class<V> fieldType, Function<? super T, ? extends V> computer) {
+    requireNonNull(lookup);
+    requireNonNull(type);
+    requireNonNull(name);
+    requireNonNull(fieldType);
+    requireNonNull(computer);
+    if (fieldType.isPrimitive()) {
+      throw new IllegalArgumentException("field type " + fieldType.getName() + " is a primitive type");
+    }
+    VarHandle handle;
+    try {
+      var field = type.getDeclaredField(name);
+      if (Modifier.isFinal(field.getModifiers())) {
+        throw new IllegalArgumentException("field " + name + " is final");
+      }
+      handle = lookup.findVarHandle(type, name, fieldType);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      throw new IllegalArgumentException(e);
+    }
+
+    // a record so the var handle is a constant for the JIT
+    record StableFieldUpdaterImpl<T, V>(VarHandle handle, Function<? super T, ? extends V> computer,
+                                        ThreadLocal<ArrayList<Object>> computing) implements StableFieldUpdater<T, V> {
+      @Override
+      @SuppressWarnings("unchecked")
+      public V get(T instance) {
+        var value = (V) handle.getAcquire(instance);
+        if (value != null) {
+          return value;
+        }
+        return initialize(instance);
+      }
+
+      @SuppressWarnings("unchecked")
+      private V initialize(T instance) {
+        var stack = computing.get();  // the instances under computation by the current thread
+        for (var element : stack) {
+          if (element == instance) {
+            throw new IllegalStateException("cyclic definition");
+          }
+        }
+        synchronized (instance) {
+          var value = (V) handle.get(instance);  // synchronized read
+          if (value != null) {
+            return value;
+          }
+          stack.add(instance);
+          try {
+            value = requireNonNull(computer.apply(instance));
+          } finally {
+            stack.removeLast();
+          }
+          handle.setRelease(instance, value);
+          return value;
+        }
+      }
+
+      @Override
+      public String toString() {
+        return "StableFieldUpdater[" + handle + "]";
+      }
+    }
+    return new StableFieldUpdaterImpl<>(handle, computer, ThreadLocal.withInitial(ArrayList::new));
+  }
+}
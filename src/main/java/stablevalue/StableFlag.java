@@ -0,0 +1,28 @@
+package stablevalue;
+
+/**
+ * A boolean flag that is read far more often than it is flipped.
+ * <p>
+ * When the flag is stored in a {@code static final} field, a test like
+ * {@code if (FLAG.isEnabled())} is constant folded by the JIT, so the branch that is not
+ * taken is removed from the generated code. Flipping the flag invalidates the code
+ * that depends on it.
+ *
+ * @see RemiStableValue#flag(boolean)
+ */
+public interface StableFlag {
+  /**
+   * {@return true if the flag is enabled}
+   */
+  boolean isEnabled();
+
+  /**
+   * Enables the flag, does nothing if the flag is already enabled.
+   */
+  void enable();
+
+  /**
+   * Disables the flag, does nothing if the flag is already disabled.
+   */
+  void disable();
+}
@@ -0,0 +1,78 @@
+package stablevalue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+
+/**
+ * A stable list, an unmodifiable list whose elements are computed once.
+ * <p>
+ * In addition to {@link #get(int)} that blocks while an element is under computation
+ * by another thread, a stable list provides {@link #tryGet(int)} that never blocks and
+ * {@link #get(int, Duration)} that blocks at most for a timeout.
+ *
+ * @param <E> the type of the elements
+ * @see RemiStableValue#list(int, IntFunction)
+ */
+public interface StableList<E> extends List<E> {
+  /**
+   * {@return the element at {@code index} if it has already been computed, an empty optional otherwise}
+   * This method never blocks and never computes the element.
+   *
+   * @param index the index of the element
+   * @throws IndexOutOfBoundsException if the index is out of bounds
+   */
+  Optional<E> tryGet(int index);
+
+  /**
+   * {@return the element at {@code index}, computing it if necessary}
+   * If an element is under computation by another thread, waits at most {@code timeout}
+   * for the end of the computation. The timeout does not bound the computation
+   * done by the current thread.
+   *
+   * @param index   the index of the element
+   * @param timeout the maximum time to wait for another thread
+   * @throws IndexOutOfBoundsException if the index is out of bounds
+   * @throws InterruptedException      if the current thread is interrupted while waiting
+   * @throws TimeoutException          if the timeout elapses while waiting
+   */
+  E get(int index, Duration timeout) throws InterruptedException, TimeoutException;
+
+  /**
+   * A function that loads a block of contiguous elements of a list in one call.
+   *
+   * @param <E> the type of the elements
+   * @see RemiStableValue#blockList(int, int, BlockLoader)
+   */
+  @FunctionalInterface
+  interface BlockLoader<E> {
+    /**
+     * {@return the elements from {@code start} (inclusive) to {@code end} (exclusive)}
+     * The returned array must have {@code end - start} non-null elements, it is copied
+     * by the list so it can be reused by the loader.
+     *
+     * @param start the index of the first element of the block
+     * @param end   the index following the last element of the block
+     */
+    E[] load(int start, int end);
+  }
+
+  /**
+   * A function that computes an element of a list from other elements of the same list.
+   *
+   * @param <E> the type of the elements
+   * @see RemiStableValue#recursiveList(int, RecursiveMapper)
+   */
+  @FunctionalInterface
+  interface RecursiveMapper<E> {
+    /**
+     * {@return the element at {@code index}}
+     *
+     * @param list  the list being computed, to access the other elements
+     * @param index the index of the element
+     */
+    E apply(StableList<E> list, int index);
+  }
+}
@@ -0,0 +1,44 @@
+package stablevalue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * A stable map, an unmodifiable map whose values are computed once.
+ * <p>
+ * In addition to {@link #get(Object)} that blocks while a value is under computation
+ * by another thread, a stable map provides {@link #tryGet(Object)} that never blocks and
+ * {@link #get(Object, Duration)} that blocks at most for a timeout.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @see RemiStableValue#map(Set, Function)
+ */
+public interface StableMap<K, V> extends Map<K, V> {
+  /**
+   * {@return the value associated with {@code key} if it has already been computed,
+   * an empty optional otherwise}
+   * This method never blocks and never computes the value.
+   *
+   * @param key the key
+   */
+  Optional<V> tryGet(Object key);
+
+  /**
+   * {@return the value associated with {@code key}, computing it if necessary,
+   * or null if the key is not a key of the map}
+   * If a value is under computation by another thread, waits at most {@code timeout}
+   * for the end of the computation. The timeout does not bound the computation
+   * done by the current thread.
+   *
+   * @param key     the key
+   * @param timeout the maximum time to wait for another thread
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   * @throws TimeoutException     if the timeout elapses while waiting
+   */
+  V get(Object key, Duration timeout) throws InterruptedException, TimeoutException;
+}
@@ -0,0 +1,315 @@
+package stablevalue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A snapshot of the values of named stable suppliers and stable maps stored in a local file,
+ * so the values computed by a run of the application can be reused by the next run.
+ * <p>
+ * A snapshot is {@linkplain #open(Path, long) opened} with a version, the values of the file
+ * are only used if the file has been {@linkplain #save() saved} with the same version and
+ * if its checksum is valid, otherwise the file is ignored and all the values are computed.
+ * The version should change each time the code computing the values or the classes
+ * of the values change.
+ * <p>
+ * The stable suppliers created by {@link #supplier(String, Class, Supplier)} and the stable maps
+ * created by {@link #map(String, Set, Class, Function)} are seeded with the values of the snapshot,
+ * so their values are not computed again. A value of the snapshot which is not an instance
+ * of the type of the supplier or of the values of the map is ignored and computed again.
+ * Only the {@linkplain Serializable serializable} values (and the serializable keys
+ * of the stable maps) are saved.
+ * <p>
+ * The values are deserialized with an {@linkplain ObjectInputFilter object input filter}
+ * that limits the depth of the object graph and the length of the arrays, the classes
+ * that can be deserialized are the ones allowed by the filter
+ * {@linkplain #open(Path, long, ObjectInputFilter) provided when opening the snapshot}.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class StableSnapshot {
+  private static final int MAGIC = 0x53_54_53_4E;  // STSN
+  private static final int HEADER_SIZE = 24;  // magic, version, payload length and checksum
+  private static final int MAX_DEPTH = 64;
+
+  private record Uncomputed(Object seed) {}
+  private record ComputedMap(ConcurrentHashMap<Object, Object> map) {}
+
+  private final Path path;
+  private final long version;
+  private final Map<String, Object> seeds;
+  private final ConcurrentHashMap<String, Object> values = new ConcurrentHashMap<>();  // name -> value, Uncomputed or ComputedMap
+
+  private StableSnapshot(Path path, long version, Map<String, Object> seeds) {
+    this.path = path;
+    this.version = version;
+    this.seeds = seeds;
+  }
+
+  /**
+   * {@return a snapshot stored in the file {@code path}}
+   * <p>
+   * If the file does not exist, has not been saved with the same {@code version}
+   * or is corrupted, or if the deserialization of a value fails, the snapshot has no value.
+   * <p>
+   * The classes of the values are checked by the
+   * {@linkplain ObjectInputFilter.Config#getSerialFilter() JVM-wide filter} if there is one,
+   * use {@link #open(Path, long, ObjectInputFilter)} to restrict them.
+   *
+   * @param path    the path of the file storing the snapshot
+   * @param version the version of the values
+   * @throws IOException if an I/O error occurs when reading the file
+   */
+  public static StableSnapshot open(Path path, long version) throws IOException {
+    var serialFilter = ObjectInputFilter.Config.getSerialFilter();
+    return open(path, version, serialFilter != null ? serialFilter : _ -> ObjectInputFilter.Status.UNDECIDED);
+  }
+
+  /**
+   * {@return a snapshot stored in the file {@code path} whose values are checked by {@code filter}}
+   * <p>
+   * If the file does not exist, has not been saved with the same {@code version}
+   * or is corrupted, or if the deserialization of a value fails, the snapshot has no value. If the {@code filter} rejects a class
+   * of the values, the snapshot has no value either, as if the classes of the values
+   * had changed.
+   * <p>
+   * For example, to only allow the classes of {@code java.base} and of the package
+   * {@code com.example.model},
+   * {@snippet :
+   *   var filter = ObjectInputFilter.Config.createFilter("java.base/*;com.example.model.*;!*");
+   *   var snapshot = StableSnapshot.open(path, version, filter);
+   * }
+   *
+   * @param path    the path of the file storing the snapshot
+   * @param version the version of the values
+   * @param filter  the filter checking the deserialized classes
+   * @throws IOException if an I/O error occurs when reading the file
+   */
+  public static StableSnapshot open(Path path, long version, ObjectInputFilter filter) throws IOException {
+    requireNonNull(path);
+    requireNonNull(filter);
+    byte[] data;
+    try {
+      data = Files.readAllBytes(path);
+    } catch (NoSuchFileException e) {
+      return new StableSnapshot(path, version, Map.of());
+    }
+    return new StableSnapshot(path, version, decode(data, version, filter));
+  }
+
+  private static Map<String, Object> decode(byte[] data, long version, ObjectInputFilter filter) throws IOException {
+    try(var input = new DataInputStream(new ByteArrayInputStream(data))) {
+      if (data.length < HEADER_SIZE || input.readInt() != MAGIC || input.readLong() != version) {
+        return Map.of();  // not a snapshot or stale snapshot
+      }
+      var length = input.readInt();
+      if (length < 0 || length > data.length - HEADER_SIZE) {
+        return Map.of();  // corrupted snapshot
+      }
+      var payload = new byte[length];
+      input.readFully(payload);
+      var crc = new CRC32();
+      crc.update(payload);
+      if (input.readLong() != crc.getValue()) {
+        return Map.of();  // corrupted snapshot
+      }
+      try(var objectInput = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+        objectInput.setObjectInputFilter(ObjectInputFilter.merge(limits(length), filter));
+        var seeds = new HashMap<String, Object>();
+        var count = objectInput.readInt();
+        for(var i = 0; i < count; i++) {
+          seeds.put(objectInput.readUTF(), objectInput.readObject());
+        }
+        return seeds;
+      } catch (ClassNotFoundException | InvalidClassException e) {
+        return Map.of();  // the classes of the values have changed
+      }
+    } catch (EOFException | ObjectStreamException e) {
+      return Map.of();  // truncated or corrupted snapshot
+    } catch (RuntimeException e) {
+      return Map.of();  // the readObject method of a value has failed
+    }
+  }
+
+  // each array element takes at least one byte of the payload
+  private static ObjectInputFilter limits(int length) {
+    return info -> info.depth() > MAX_DEPTH || info.arrayLength() > length ?
+        ObjectInputFilter.Status.REJECTED :
+        ObjectInputFilter.Status.UNDECIDED;
+  }
+
+  private void register(String name, Object value) {
+    if (values.putIfAbsent(name, value) != null) {
+      throw new IllegalStateException("name " + name + " already registered");
+    }
+  }
+
+  /**
+   * {@return a new stable supplier named {@code name} seeded with the value of the snapshot}
+   * <p>
+   * If the snapshot contains a value for {@code name} which is an instance of {@code type},
+   * the returned supplier returns it without calling {@code original}, otherwise the returned
+   * supplier behaves like {@link RemiStableValue#supplier(Supplier)}.
+   *
+   * @param name     the name of the value in the snapshot
+   * @param type     the type of the value
+   * @param original supplier used to compute a cached value if there is no value in the snapshot
+   * @param <T>      the type of results supplied by the returned supplier
+   * @throws IllegalStateException if a stable value with the same name already exists
+   *                               in this snapshot
+   */
+  @SuppressWarnings("unchecked")
+  public <T> StableSupplier<T> supplier(String name, Class<? super T> type, Supplier<? extends T> original) {
+    requireNonNull(name);
+    requireNonNull(type);
+    requireNonNull(original);
+    var seed = type.isInstance(seeds.get(name)) ? seeds.get(name) : null;
+    register(name, new Uncomputed(seed));
+    return RemiStableValue.supplier(() -> {
+      var value = seed != null ? (T) seed : original.get();
+      values.put(name, value);
+      return value;
+    });
+  }
+
+  /**
+   * {@return a new stable map named {@code name} seeded with the values of the snapshot}
+   * <p>
+   * If the snapshot contains a value for a key which is an instance of {@code valueType},
+   * the returned map returns it without calling {@code mapper}, otherwise the returned map
+   * behaves like {@link RemiStableValue#map(Set, Function)}.
+   *
+   * @param name      the name of the map in the snapshot
+   * @param keys      the (non-null) keys in the returned map
+   * @param valueType the type of the values
+   * @param mapper    to invoke whenever an associated value is first accessed and
+   *                  is not in the snapshot
+   * @param <K>       the type of keys maintained by the returned map
+   * @param <V>       the type of mapped values in the returned map
+   * @throws IllegalStateException if a stable value with the same name already exists
+   *                               in this snapshot
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> StableMap<K, V> map(String name, Set<K> keys, Class<? super V> valueType,
+                                    Function<? super K, ? extends V> mapper) {
+    requireNonNull(name);
+    requireNonNull(keys);
+    requireNonNull(valueType);
+    requireNonNull(mapper);
+    var seed = seeds.get(name) instanceof Map<?, ?> map ?
+        (Map<K, V>) map.entrySet().stream()
+            .filter(e -> keys.contains(e.getKey()) && valueType.isInstance(e.getValue()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)) :
+        Map.<K, V>of();
+    var computed = new ConcurrentHashMap<Object, Object>(seed);
+    register(name, new ComputedMap(computed));
+    return RemiStableValue.map(keys, key -> {
+      var value = seed.get(key);
+      if (value == null) {
+        value = mapper.apply(key);
+        computed.put(key, value);
+      }
+      return value;
+    });
+  }
+
+  /**
+   * Saves the values of the snapshot in the file.
+   * The file is replaced atomically, so a concurrent reader never sees a partial snapshot.
+   *
+   * @throws IOException if an I/O error occurs or if a value can not be serialized
+   */
+  public void save() throws IOException {
+    var entries = new HashMap<String, Object>();
+    values.forEach((name, value) -> {
+      if (value instanceof Uncomputed(var seed)) {
+        if (seed != null) {
+          entries.put(name, seed);
+        }
+        return;
+      }
+      if (value instanceof ComputedMap(var map)) {
+        var serializableMap = new HashMap<Object, Object>();
+        map.forEach((k, v) -> {
+          if (k instanceof Serializable && v instanceof Serializable) {
+            serializableMap.put(k, v);
+          }
+        });
+        entries.put(name, serializableMap);
+        return;
+      }
+      if (value instanceof Serializable) {
+        entries.put(name, value);
+      }
+    });
+
+    var payloadStream = new ByteArrayOutputStream();
+    try(var objectOutput = new ObjectOutputStream(payloadStream)) {
+      objectOutput.writeInt(entries.size());
+      for(var entry : entries.entrySet()) {
+        objectOutput.writeUTF(entry.getKey());
+        objectOutput.writeObject(entry.getValue());
+      }
+    }
+    var payload = payloadStream.toByteArray();
+    var crc = new CRC32();
+    crc.update(payload);
+
+    var tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+    try {
+      try(var output = new DataOutputStream(Files.newOutputStream(tmp))) {
+        output.writeInt(MAGIC);
+        output.writeLong(version);
+        output.writeInt(payload.length);
+        output.write(payload);
+        output.writeLong(crc.getValue());
+      }
+      Files.move(tmp, path, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Registers a shutdown hook that {@linkplain #save() saves} the snapshot
+   * when the virtual machine shuts down.
+   *
+   * @return this snapshot
+   */
+  public StableSnapshot saveOnShutdown() {
+    Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(() -> {
+      try {
+        save();
+      } catch (IOException e) {
+        System.getLogger(StableSnapshot.class.getName())
+            .log(System.Logger.Level.WARNING, "can not save the snapshot " + path, e);
+      }
+    }));
+    return this;
+  }
+}
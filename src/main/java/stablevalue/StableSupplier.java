@@ -0,0 +1,95 @@
+package stablevalue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A stable supplier, a supplier that computes its value once.
+ * <p>
+ * In addition to {@link #get()} that blocks while the value is under computation
+ * by another thread, a stable supplier provides {@link #tryGet()} that never blocks and
+ * {@link #get(Duration)} that blocks at most for a timeout, so a latency-critical thread
+ * can use a fallback value instead of waiting for a slow computation.
+ * <p>
+ * A stable supplier can be derived from other suppliers with {@link #map(Function)},
+ * {@link #zip(Supplier, BiFunction)} and {@link #flatMap(Function)}. A derived supplier
+ * is itself a stable supplier, it computes its inputs when it is first accessed and then
+ * records its value as one constant, so reading the value at the end of a chain of
+ * derivations costs a single stable read, whatever the depth of the chain.
+ * <pre>
+ * private static final StableSupplier&lt;Config&gt; CONFIG =
+ *     RemiStableValue.supplier(Config::load);
+ * private static final StableSupplier&lt;Duration&gt; TIMEOUT =
+ *     CONFIG.map(Config::timeout);
+ * </pre>
+ *
+ * @param <T> the type of the value
+ * @see RemiStableValue#supplier(Supplier)
+ */
+public interface StableSupplier<T> extends Supplier<T> {
+  /**
+   * {@return the value if it has already been computed, an empty optional otherwise}
+   * This method never blocks and never computes the value.
+   */
+  Optional<T> tryGet();
+
+  /**
+   * {@return the value, computing it if necessary}
+   * If the value is under computation by another thread, waits at most {@code timeout}
+   * for the end of the computation. If no other thread is computing the value,
+   * the value is computed by the current thread, the timeout does not bound that computation.
+   *
+   * @param timeout the maximum time to wait for another thread
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   * @throws TimeoutException     if the timeout elapses while waiting
+   */
+  T get(Duration timeout) throws InterruptedException, TimeoutException;
+
+  /**
+   * {@return a new stable supplier of the value of this supplier transformed by {@code mapper}}
+   * The provided {@code mapper} is called at most once, when the returned supplier
+   * is first accessed, after this supplier has computed its value.
+   *
+   * @param mapper the function applied to the value of this supplier
+   * @param <R>    the type of the value of the returned supplier
+   */
+  default <R> StableSupplier<R> map(Function<? super T, ? extends R> mapper) {
+    requireNonNull(mapper);
+    return RemiStableValue.supplier(() -> mapper.apply(get()));
+  }
+
+  /**
+   * {@return a new stable supplier combining the value of this supplier and the value of {@code other}}
+   * The provided {@code combiner} is called at most once, when the returned supplier
+   * is first accessed, after this supplier and then {@code other} have computed their values.
+   *
+   * @param other    the other supplier, usually a stable supplier
+   * @param combiner the function combining the two values
+   * @param <U>      the type of the value of the other supplier
+   * @param <R>      the type of the value of the returned supplier
+   */
+  default <U, R> StableSupplier<R> zip(Supplier<? extends U> other, BiFunction<? super T, ? super U, ? extends R> combiner) {
+    requireNonNull(other);
+    requireNonNull(combiner);
+    return RemiStableValue.supplier(() -> combiner.apply(get(), other.get()));
+  }
+
+  /**
+   * {@return a new stable supplier of the value of the supplier returned by {@code mapper}}
+   * The provided {@code mapper} and the supplier it returns are called at most once,
+   * when the returned supplier is first accessed, after this supplier has computed its value.
+   *
+   * @param mapper the function returning a supplier from the value of this supplier
+   * @param <R>    the type of the value of the returned supplier
+   */
+  default <R> StableSupplier<R> flatMap(Function<? super T, ? extends Supplier<? extends R>> mapper) {
+    requireNonNull(mapper);
+    return RemiStableValue.supplier(() -> mapper.apply(get()).get());
+  }
+}
@@ -0,0 +1,116 @@
+package stablevalue;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A stable table, an unmodifiable two-dimensional table whose cells are computed once,
+ * when they are first accessed.
+ * <p>
+ * The cells are stored in a flat array indexed by {@code row * columns() + column}.
+ * The variants {@link OfInt} and {@link OfDouble} store the cells in primitive arrays.
+ *
+ * @param <E> the type of the cells
+ * @see RemiStableValue#table(int, int, Mapper)
+ */
+public interface StableTable<E> {
+  /**
+   * {@return the number of rows of the table}
+   */
+  int rows();
+
+  /**
+   * {@return the number of columns of the table}
+   */
+  int columns();
+
+  /**
+   * {@return the cell at {@code row} and {@code column}, computing it if necessary}
+   *
+   * @param row    the row of the cell
+   * @param column the column of the cell
+   * @throws IndexOutOfBoundsException if the row or the column is out of bounds
+   */
+  E get(int row, int column);
+
+  /**
+   * A function that computes the value of a cell of a table.
+   *
+   * @param <E> the type of the cells
+   */
+  @FunctionalInterface
+  interface Mapper<E> {
+    /**
+     * {@return the value of the cell at {@code row} and {@code column}}
+     *
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     */
+    E apply(int row, int column);
+  }
+
+  /**
+   * A stable table of {@code int}s.
+   *
+   * @see RemiStableValue#intTable(int, int, IntBinaryOperator)
+   */
+  interface OfInt {
+    /**
+     * {@return the number of rows of the table}
+     */
+    int rows();
+
+    /**
+     * {@return the number of columns of the table}
+     */
+    int columns();
+
+    /**
+     * {@return the cell at {@code row} and {@code column}, computing it if necessary}
+     *
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     * @throws IndexOutOfBoundsException if the row or the column is out of bounds
+     */
+    int getInt(int row, int column);
+  }
+
+  /**
+   * A stable table of {@code double}s.
+   *
+   * @see RemiStableValue#doubleTable(int, int, DoubleMapper)
+   */
+  interface OfDouble {
+    /**
+     * {@return the number of rows of the table}
+     */
+    int rows();
+
+    /**
+     * {@return the number of columns of the table}
+     */
+    int columns();
+
+    /**
+     * {@return the cell at {@code row} and {@code column}, computing it if necessary}
+     *
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     * @throws IndexOutOfBoundsException if the row or the column is out of bounds
+     */
+    double getDouble(int row, int column);
+  }
+
+  /**
+   * A function that computes the value of a cell of a table of {@code double}s.
+   */
+  @FunctionalInterface
+  interface DoubleMapper {
+    /**
+     * {@return the value of the cell at {@code row} and {@code column}}
+     *
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     */
+    double applyAsDouble(int row, int column);
+  }
+}
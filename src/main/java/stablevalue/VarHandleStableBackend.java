@@ -0,0 +1,257 @@
+package stablevalue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static java.lang.invoke.MethodHandles.arrayElementVarHandle;
+import static java.util.Objects.checkIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The backend based on a double-checked locking, the fast path is an acquire read
+ * of a field or of an array element, the slow path computes the value with a lock held
+ * and publishes it with a release write.
+ * <p>
+ * Unlike the call sites of {@link RemiStableValue}, the value is never a constant for the JIT,
+ * but the fast path does not depend on the stable value being a constant either.
+ *
+ * @see StableBackend#varHandle()
+ */
+final class VarHandleStableBackend implements StableBackend {
+  static final VarHandleStableBackend INSTANCE = new VarHandleStableBackend();
+
+  private VarHandleStableBackend() {}
+
+  @Override
+  public String name() {
+    return "varhandle";
+  }
+
+  @Override
+  public <T> Supplier<T> supplier(Supplier<? extends T> original) {
+    requireNonNull(original);
+    return new DclSupplier<>(original);
+  }
+
+  @Override
+  public <E> List<E> list(int size, IntFunction<? extends E> mapper) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size < 0");
+    }
+    requireNonNull(mapper);
+    return new DclList<>(new DclArray(size, mapper));
+  }
+
+  @Override
+  public <K, V> Map<K, V> map(Set<K> keys, Function<? super K, ? extends V> mapper) {
+    requireNonNull(keys);
+    requireNonNull(mapper);
+    @SuppressWarnings("unchecked")
+    var keyArray = (K[]) Set.copyOf(keys).toArray();
+    var indexes = new HashMap<Object, Integer>();
+    for(var i = 0; i < keyArray.length; i++) {
+      indexes.put(keyArray[i], i);
+    }
+    return new DclMap<>(keyArray, indexes, new DclArray(keyArray.length, i -> mapper.apply(keyArray[i])));
+  }
+
+  @Override
+  public String toString() {
+    return "StableBackend[varhandle]";
+  }
+
+  private static final class DclSupplier<T> implements Supplier<T> {
+    private static final VarHandle VALUE;
+    static {
+      try {
+        VALUE = MethodHandles.lookup().findVarHandle(DclSupplier.class, "value", Object.class);
+      } catch (NoSuchFieldException | IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Supplier<? extends T> original;  // guarded by the lock, null once the value is computed
+    private Object value;  // null or the value, written with the lock held
+
+    private DclSupplier(Supplier<? extends T> original) {
+      this.original = original;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+      var value = VALUE.getAcquire(this);
+      if (value != null) {
+        return (T) value;
+      }
+      return initialize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T initialize() {
+      if (lock.isHeldByCurrentThread()) {
+        throw new IllegalStateException("cyclic definition");
+      }
+      lock.lock();
+      try {
+        var value = this.value;
+        if (value != null) {
+          return (T) value;
+        }
+        value = requireNonNull(original.get());
+        VALUE.setRelease(this, value);
+        original = null;  // let the GC collect what the supplier captures
+        return (T) value;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  // the elements and the lock of a list or the values and the lock of a map
+  private static final class DclArray {
+    private static final VarHandle ARRAY = arrayElementVarHandle(Object[].class);
+
+    private final Object[] array;  // null or the element, written with the lock held
+    private final ReentrantLock lock = new ReentrantLock();
+    private IntFunction<?> mapper;  // guarded by the lock, null once all the elements are computed
+    private int remaining;  // the number of elements to compute, guarded by the lock
+
+    private DclArray(int size, IntFunction<?> mapper) {
+      array = new Object[size];
+      this.mapper = size == 0 ? null : mapper;
+      remaining = size;
+    }
+
+    int size() {
+      return array.length;
+    }
+
+    Object get(int index) {
+      var value = ARRAY.getAcquire(array, index);
+      if (value != null) {
+        return value;
+      }
+      return initialize(index);
+    }
+
+    private Object initialize(int index) {
+      if (lock.isHeldByCurrentThread()) {
+        throw new IllegalStateException("cyclic definition");
+      }
+      lock.lock();
+      try {
+        var value = array[index];
+        if (value != null) {
+          return value;
+        }
+        value = requireNonNull(mapper.apply(index));
+        ARRAY.setRelease(array, index, value);
+        if (--remaining == 0) {
+          mapper = null;  // let the GC collect what the mapper captures
+        }
+        return value;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private static final class DclList<E> extends AbstractList<E> implements RandomAccess {
+    private final DclArray array;
+
+    private DclList(DclArray array) {
+      this.array = array;
+    }
+
+    @Override
+    public int size() {
+      return array.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+      checkIndex(index, array.size());
+      return (E) array.get(index);
+    }
+  }
+
+  private static final class DclMap<K, V> extends AbstractMap<K, V> {
+    private final K[] keys;
+    private final HashMap<Object, Integer> indexes;  // key -> index, not modified after construction
+    private final DclArray values;
+
+    private DclMap(K[] keys, HashMap<Object, Integer> indexes, DclArray values) {
+      this.keys = keys;
+      this.indexes = indexes;
+      this.values = values;
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      requireNonNull(key);
+      return indexes.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+      requireNonNull(key);
+      var index = indexes.get(key);
+      return index == null ? null : (V) values.get(index);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return keys.length;
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+          return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+              return index < keys.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Entry<K, V> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              var i = index++;
+              return Map.entry(keys[i], (V) values.get(i));
+            }
+          };
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package stable;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// runs the same task in several threads at the same time, the failures of the tasks
+// (assertion errors included) are rethrown in the thread of the test
+final class ConcurrentTasks {
+  private ConcurrentTasks() {
+    throw new AssertionError();
+  }
+
+  @FunctionalInterface
+  interface Task {
+    void run(int thread) throws Exception;
+  }
+
+  /**
+   * Runs {@code task} in {@code threadCount} threads, the threads start the task at the same time,
+   * waits until all the tasks are done and rethrows the failure of the first failed task.
+   *
+   * @param threadCount the number of threads
+   * @param task        the task, called with the index of its thread
+   */
+  static void run(int threadCount, Task task) throws Exception {
+    var start = new CountDownLatch(1);
+    var futures = new ArrayList<Future<?>>();
+    try(var executor = Executors.newFixedThreadPool(threadCount)) {
+      for (var i = 0; i < threadCount; i++) {
+        var thread = i;
+        futures.add(executor.submit(() -> {
+          start.await();
+          task.run(thread);
+          return null;
+        }));
+      }
+      start.countDown();
+    }
+    for (var future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        var cause = e.getCause();
+        if (cause instanceof Error error) {
+          throw error;
+        }
+        throw (Exception) cause;
+      }
+    }
+  }
+}
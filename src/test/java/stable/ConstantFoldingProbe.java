@@ -0,0 +1,111 @@
+package stable;
+
+import stablevalue.RemiStableValue;
+import stablevalue.StableSupplier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The probes of {@link ConstantFoldingTest}, run in a child JVM.
+ * <p>
+ * Each probe method reads a stable value stored in a {@code static final} field,
+ * the values are computed before the probes are compiled, so C2 should fold each read
+ * to the constant linked in the call site of the stable value.
+ * Each probe has its own stable value, so the profile of the guards of a probe
+ * is not polluted by the other probes.
+ */
+public class ConstantFoldingProbe {
+  private static final Supplier<String> SUPPLIER = RemiStableValue.supplier(() -> "value");
+  private static final List<String> LIST = RemiStableValue.list(16, index -> "element" + index);
+  private static final List<String> FULL_LIST = RemiStableValue.list(16, index -> "element" + index);
+  private static final List<String> FULL_SPARSE_LIST = RemiStableValue.sparseList(16, index -> "element" + index);
+  private static final Map<String, String> MAP = RemiStableValue.map(Set.of("foo", "bar"), key -> "value" + key);
+  private static final Function<String, String> MEMOIZE = RemiStableValue.memoize(key -> "value" + key);
+  private static final Function<Class<?>, String> PER_CLASS = RemiStableValue.perClass(Class::getName);
+  private static final StableSupplier<Integer> DERIVED = RemiStableValue.supplier(() -> "  42  ")
+      .map(String::strip)
+      .map(Integer::parseInt)
+      .zip(RemiStableValue.supplier(() -> 2), (a, b) -> a * b);
+  private static final PlainHolder PLAIN_HOLDER = new PlainHolder(RemiStableValue.supplier(() -> "value"));
+
+  // a plain final field is not trusted by C2, so the supplier read through it is not a constant
+  static final class PlainHolder {
+    private final Supplier<String> supplier;
+
+    PlainHolder(Supplier<String> supplier) {
+      this.supplier = supplier;
+    }
+  }
+
+  static String probeSupplier() {
+    return SUPPLIER.get();
+  }
+
+  static String probeListFirst() {
+    return LIST.get(0);
+  }
+
+  // all the elements of a list are linked, so this element is guarded by a chain of tests
+  static String probeListLast() {
+    return FULL_LIST.get(15);
+  }
+
+  // the first elements fill the inline cache of the sparse list, so this element is read from the storage
+  static String probeSparseListBeyondInlineCache() {
+    return FULL_SPARSE_LIST.get(15);
+  }
+
+  // the field of the holder is not trusted, so the method handle of the supplier is not a constant
+  static String probePlainHolder() {
+    return PLAIN_HOLDER.supplier.get();
+  }
+
+  static String probeMap() {
+    return MAP.get("foo");
+  }
+
+  static String probeMemoize() {
+    return MEMOIZE.apply("foo");
+  }
+
+  static String probePerClass() {
+    return PER_CLASS.apply(String.class);
+  }
+
+  static Integer probeDerived() {
+    return DERIVED.get();
+  }
+
+  public static void main(String[] args) {
+    // compute the values first, so the probes are compiled with the constants linked
+    for(var i = 0; i < FULL_LIST.size(); i++) {
+      FULL_LIST.get(i);
+      FULL_SPARSE_LIST.get(i);
+    }
+    for(var i = 0; i < 100; i++) {  // makes the key hot enough to be recorded as a constant
+      MEMOIZE.apply("foo");
+    }
+    SUPPLIER.get();
+    LIST.get(0);
+    MAP.get("foo");
+    PER_CLASS.apply(String.class);
+    DERIVED.get();
+    PLAIN_HOLDER.supplier.get();
+
+    for(var i = 0; i < 20_000; i++) {
+      probeSupplier();
+      probeListFirst();
+      probeListLast();
+      probeSparseListBeyondInlineCache();
+      probePlainHolder();
+      probeMap();
+      probeMemoize();
+      probePerClass();
+      probeDerived();
+    }
+  }
+}
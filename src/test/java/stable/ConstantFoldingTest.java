@@ -0,0 +1,218 @@
+package stable;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import stablevalue.RemiStableValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that C2 folds the reads of the stable values to constants.
+ * <p>
+ * The probes of {@link ConstantFoldingProbe} are compiled by C2 in a child JVM with
+ * {@code PrintInlining}, a probe is folded if its inlining tree does not contain
+ * the slow path of the stable value (the fallback of the call site, the read of the storage
+ * or the lookup in a table), does not contain a call to a method handle that is not inlined
+ * (a receiver that is not constant, an {@code invokeBasic} or a {@code linkTo*})
+ * and contains at most one guard of an inline cache, a test of two constants.
+ * PrintInlining is printed while parsing, so a branch that is folded later is still listed,
+ * hence the probes use stable values that are only accessed by one probe.
+ */
+public class ConstantFoldingTest {
+  private static final Pattern COMPILATION = Pattern.compile("\\s(\\S+::\\S+) \\(\\d+ bytes\\)");
+  // a line of the inlining tree, the callee, its size and the inlining decision
+  private static final Pattern INLINING = Pattern.compile("@ \\d+\\s+(\\S+::\\S+)(?: \\([^)]*\\))?\\s*(.*)$");
+  private static final Pattern INLINED = Pattern.compile("^(inline|force inline|accessor|\\(intrinsic|late inline succeeded)\\b");
+  // the calls to a method handle that C2 could not resolve to a constant
+  private static final Pattern UNRESOLVED_HANDLE = Pattern.compile("java\\.lang\\.invoke\\.MethodHandle::(invokeBasic|linkTo\\w+)\\b.*");
+
+  // the methods of the slow paths
+  private static final List<String> SLOW_PATHS = List.of(
+      "stablevalue.*::fallback", "stablevalue.*::read", "stablevalue.*::load", "stablevalue.*::compute",
+      "stablevalue.*::value", "java.util.concurrent.ConcurrentHashMap::get", "java.lang.ClassValue::get");
+
+  // a line of the inlining tree of a probe
+  private record Call(String method, String decision) {
+    boolean inlined() {
+      return INLINED.matcher(decision).find();
+    }
+
+    @Override
+    public String toString() {
+      return method + " " + decision;
+    }
+  }
+
+  // probe method name -> calls of the last compilation of the probe
+  private static Map<String, List<Call>> inlinedCalls;
+
+  @BeforeAll
+  public static void compileProbes() throws IOException, InterruptedException, URISyntaxException {
+    var vmName = System.getProperty("java.vm.name");
+    assumeTrue(vmName.contains("HotSpot") || vmName.contains("Server VM"), "PrintInlining requires HotSpot");
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    var classPath = Stream.of(ConstantFoldingProbe.class, RemiStableValue.class)
+        .map(type -> type.getProtectionDomain().getCodeSource().getLocation())
+        .map(location -> {
+          try {
+            return Path.of(location.toURI()).toString();
+          } catch (URISyntaxException e) {
+            throw new AssertionError(e);
+          }
+        })
+        .distinct()
+        .collect(joining(File.pathSeparator));
+    var probes = ConstantFoldingProbe.class.getName() + "::probe*";
+    var process = new ProcessBuilder(java,
+        "--enable-preview",
+        "-cp", classPath,
+        "-XX:-TieredCompilation", "-Xbatch", "-XX:CICompilerCount=1",
+        "-XX:+UnlockDiagnosticVMOptions",
+        "-XX:CompileCommand=quiet",
+        "-XX:CompileCommand=dontinline," + probes,
+        "-XX:CompileCommand=PrintInlining," + probes,
+        "-XX:+PrintCompilation",
+        ConstantFoldingProbe.class.getName())
+        .redirectErrorStream(true)
+        .start();
+    var lines = process.inputReader().lines().toList();
+    assertEquals(0, process.waitFor(), () -> String.join("\n", lines));
+    inlinedCalls = parse(lines);
+  }
+
+  private static Map<String, List<Call>> parse(List<String> lines) {
+    var map = new HashMap<String, List<Call>>();
+    List<Call> current = null;
+    for(var line : lines) {
+      var inlining = INLINING.matcher(line);
+      if (inlining.find()) {
+        if (current != null) {
+          current.add(new Call(inlining.group(1), inlining.group(2).strip()));
+        }
+        continue;
+      }
+      if (line.strip().startsWith("\\->")) {  // the type profile of the previous call
+        continue;
+      }
+      current = null;
+      var compilation = COMPILATION.matcher(line);
+      if (compilation.find() && !line.contains("made not entrant")) {
+        var method = compilation.group(1);
+        var probe = ConstantFoldingProbe.class.getName() + "::";
+        if (method.startsWith(probe)) {
+          current = new ArrayList<>();
+          map.put(method.substring(probe.length()), current);  // keep the last compilation
+        }
+      }
+    }
+    return map;
+  }
+
+  private static List<Call> calls(String probe) {
+    var calls = inlinedCalls.get(probe);
+    assertNotNull(calls, probe + " was not compiled");
+    assertFalse(calls.isEmpty(), probe + " inlined nothing");
+    return calls;
+  }
+
+  private static List<Call> slowPaths(String probe) {
+    return calls(probe).stream()
+        .filter(call -> SLOW_PATHS.stream().anyMatch(slowPath -> matches(slowPath, call.method())))
+        .toList();
+  }
+
+  // the calls through a method handle that is not a constant
+  private static List<Call> unresolvedHandles(String probe) {
+    return calls(probe).stream()
+        .filter(call -> !call.inlined())
+        .filter(call -> call.decision().contains("receiver not constant")
+            || UNRESOLVED_HANDLE.matcher(call.method()).matches())
+        .toList();
+  }
+
+  private static boolean matches(String slowPath, String method) {
+    var wildcard = slowPath.indexOf(".*::");
+    if (wildcard == -1) {
+      return method.equals(slowPath);
+    }
+    return method.startsWith(slowPath.substring(0, wildcard + 1))
+        && method.endsWith(slowPath.substring(wildcard + 2));
+  }
+
+  private static void assertFolded(String probe) {
+    assertNoSlowPath(probe);
+    var guards = calls(probe).stream()
+        .filter(call -> matches("stablevalue.*::test", call.method()))
+        .toList();
+    assertTrue(guards.size() <= 1, () -> probe + " inlines a guard chain " + guards);
+  }
+
+  private static void assertNoSlowPath(String probe) {
+    var slowPaths = slowPaths(probe);
+    assertTrue(slowPaths.isEmpty(), () -> probe + " is not folded, inlines " + slowPaths);
+    var unresolvedHandles = unresolvedHandles(probe);
+    assertTrue(unresolvedHandles.isEmpty(), () -> probe + " is not folded, calls " + unresolvedHandles);
+  }
+
+  @Test
+  public void supplierIsFolded() {
+    assertFolded("probeSupplier");
+  }
+
+  @Test
+  public void listElementIsFolded() {
+    assertFolded("probeListFirst");
+  }
+
+  // the guards of the other elements are tests of two constants, they are folded too
+  @Test
+  public void listElementLinkedAfterManyElementsIsFolded() {
+    assertNoSlowPath("probeListLast");
+  }
+
+  @Test
+  public void mapValueIsFolded() {
+    assertFolded("probeMap");
+  }
+
+  @Test
+  public void memoizedValueIsFolded() {
+    assertFolded("probeMemoize");
+  }
+
+  @Test
+  public void perClassValueIsFolded() {
+    assertFolded("probePerClass");
+  }
+
+  @Test
+  public void derivedSupplierIsFolded() {
+    assertFolded("probeDerived");
+  }
+
+  // checks that the test can fail, an element that is not in the inline cache is read from the storage
+  @Test
+  public void sparseListElementBeyondInlineCacheIsNotFolded() {
+    assertFalse(slowPaths("probeSparseListBeyondInlineCache").isEmpty());
+  }
+
+  // checks that the test can fail, a supplier read through a plain final field is not a constant
+  @Test
+  public void supplierInPlainHolderIsNotFolded() {
+    assertFalse(unresolvedHandles("probePlainHolder").isEmpty());
+  }
+}
@@ -0,0 +1,161 @@
+package stable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import stablevalue.Lazy;
+import stablevalue.LazyProcessor;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyProcessorTest {
+  @TempDir
+  Path directory;
+
+  private DiagnosticCollector<JavaFileObject> compile(String className, String source) throws IOException, URISyntaxException {
+    var sourceFile = directory.resolve("src").resolve(className.replace('.', '/') + ".java");
+    Files.createDirectories(sourceFile.getParent());
+    Files.writeString(sourceFile, source);
+    var output = Files.createDirectories(directory.resolve("classes"));
+
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    try(var fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+      var task = compiler.getTask(null, fileManager, diagnostics,
+          List.of("-d", output.toString(), "-s", output.toString(),
+              "-classpath", Path.of(Lazy.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString()),
+          null, fileManager.getJavaFileObjects(sourceFile));
+      task.setProcessors(List.of(new LazyProcessor()));
+      task.call();
+    }
+    return diagnostics;
+  }
+
+  private ClassLoader loader() throws IOException {
+    return new URLClassLoader(new URL[] { directory.resolve("classes").toUri().toURL() },
+        LazyProcessorTest.class.getClassLoader());
+  }
+
+  @Test
+  public void accessorsAreGenerated() throws Exception {
+    var diagnostics = compile("demo.Config", """
+        package demo;
+
+        import java.util.concurrent.atomic.AtomicInteger;
+        import java.util.function.Supplier;
+        import stablevalue.Lazy;
+
+        public class Config {
+          public static final AtomicInteger COUNTER = new AtomicInteger();
+
+          @Lazy
+          public static String name() {
+            return "name " + COUNTER.incrementAndGet();
+          }
+
+          @Lazy
+          static final Supplier<Integer> DEFAULT_PORT = () -> 8080 + COUNTER.incrementAndGet();
+
+          public static int port() {
+            return ConfigLazy.defaultPort();
+          }
+        }
+        """);
+    assertEquals(List.of(), diagnostics.getDiagnostics());
+
+    var loader = loader();
+    var config = loader.loadClass("demo.Config");
+    var configLazy = loader.loadClass("demo.ConfigLazy");
+    var counter = (AtomicInteger) config.getField("COUNTER").get(null);
+    var name = configLazy.getMethod("name");
+    var port = config.getMethod("port");
+
+    assertEquals(0, counter.get());
+    assertEquals("name 1", name.invoke(null));
+    assertEquals("name 1", name.invoke(null));
+    assertEquals(1, counter.get());
+    assertEquals(8082, port.invoke(null));
+    assertEquals(8082, port.invoke(null));
+    assertEquals(2, counter.get());
+  }
+
+  @Test
+  public void nestedClassAccessorsAreGenerated() throws Exception {
+    var diagnostics = compile("demo.Outer", """
+        package demo;
+
+        import stablevalue.Lazy;
+
+        public class Outer {
+          public static class Inner {
+            @Lazy
+            public static String value() {
+              return "value";
+            }
+          }
+        }
+        """);
+    assertEquals(List.of(), diagnostics.getDiagnostics());
+
+    assertEquals("value", loader().loadClass("demo.Outer_InnerLazy").getMethod("value").invoke(null));
+  }
+
+  @Test
+  public void invalidMembersAreReported() throws IOException, URISyntaxException {
+    var diagnostics = compile("demo.Invalid", """
+        package demo;
+
+        import java.util.function.Supplier;
+        import stablevalue.Lazy;
+
+        public class Invalid {
+          @Lazy
+          String instanceMethod() {
+            return "";
+          }
+
+          @Lazy
+          private static String privateMethod() {
+            return "";
+          }
+
+          @Lazy
+          static String parameter(int value) {
+            return "";
+          }
+
+          @Lazy
+          static String exception() throws Exception {
+            return "";
+          }
+
+          @Lazy
+          static void noValue() {
+          }
+
+          @Lazy
+          static final String NOT_A_SUPPLIER = "";
+
+          @Lazy
+          static final Supplier<?> WILDCARD = () -> "";
+        }
+        """);
+
+    assertEquals(7, diagnostics.getDiagnostics().stream()
+        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        .count());
+  }
+}
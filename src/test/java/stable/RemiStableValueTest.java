@@ -4,21 +4,44 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import stablevalue.FailurePolicy;
 import stablevalue.RemiStableValue;
-
+import stablevalue.StableArray;
+import stablevalue.StableList;
+import stablevalue.StableTable;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static java.lang.foreign.ValueLayout.JAVA_INT;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RemiStableValueTest {
@@ -204,6 +227,78 @@ public class RemiStableValueTest {
       );
     }
 
+    @Test
+    public void listSupportsIteration() {
+      var list = RemiStableValue.list(3, i -> "Item " + i);
+
+      var iterator = list.listIterator(1);
+      assertAll(
+          () -> assertEquals(List.of("Item 0", "Item 1", "Item 2"), list),
+          () -> assertFalse(list.isEmpty()),
+          () -> assertTrue(list.contains("Item 2")),
+          () -> assertEquals("Item 1", iterator.next()),
+          () -> assertEquals("Item 1", iterator.previous()),
+          () -> assertEquals("Item 0", iterator.previous()),
+          () -> assertFalse(iterator.hasPrevious())
+      );
+    }
+
+    @Test
+    public void listIsEmptyOnlyIfItsSizeIsZero() {
+      assertAll(
+          () -> assertFalse(RemiStableValue.list(3, i -> i).isEmpty()),
+          () -> assertTrue(RemiStableValue.list(0, i -> i).isEmpty())
+      );
+    }
+
+    @Test
+    public void listContainsItsElements() {
+      var list = RemiStableValue.list(3, i -> "Item " + i);
+
+      assertAll(
+          () -> assertTrue(list.contains("Item 0")),
+          () -> assertTrue(list.contains("Item 2")),
+          () -> assertFalse(list.contains("Item 3"))
+      );
+    }
+
+    @Test
+    public void listIteratorNextReturnsTheElementsInOrder() {
+      var list = RemiStableValue.list(3, i -> "Item " + i);
+
+      var iterator = list.iterator();
+      assertEquals("Item 0", iterator.next());
+      assertEquals("Item 1", iterator.next());
+      assertEquals("Item 2", iterator.next());
+      assertFalse(iterator.hasNext());
+      assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void listIteratorPreviousReturnsTheElementBeforeTheCursor() {
+      var list = RemiStableValue.list(3, i -> "Item " + i);
+
+      var iterator = list.listIterator(3);
+      assertEquals("Item 2", iterator.previous());
+      assertEquals(2, iterator.nextIndex());
+      assertEquals("Item 1", iterator.previous());
+      assertEquals("Item 0", iterator.previous());
+      assertThrows(NoSuchElementException.class, iterator::previous);
+    }
+
+    @Test
+    public void listIteratorStartsAtTheIndex() {
+      var list = RemiStableValue.list(3, i -> "Item " + i);
+
+      assertAll(
+          () -> assertEquals("Item 2", list.listIterator(2).next()),
+          () -> assertEquals(1, list.listIterator(1).nextIndex()),
+          () -> assertFalse(list.listIterator(3).hasNext()),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.listIterator(4)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.listIterator(-1))
+      );
+    }
+
     @Test
     public void listIsUnmodifiable() {
       var list = RemiStableValue.list(5, i -> i);
@@ -262,12 +357,34 @@ public class RemiStableValueTest {
         assertEquals(1, count.get());
       }
     }
+
+    @Test
+    public void listWithManyComputedElements() {
+      var list = RemiStableValue.list(100_000, index -> index);
+
+      for (var i = 0; i < 100_000; i++) {
+        assertEquals(i, list.get(i));
+      }
+    }
   }
 
 
   @Nested
   public class MapTests {
 
+    @Test
+    public void mapWithManyComputedValues() {
+      var keys = IntStream.range(0, 100_000).boxed().collect(Collectors.toSet());
+      var map = RemiStableValue.map(keys, key -> -key);
+
+      for (var key : keys) {
+        assertEquals(-key, map.get(key));
+      }
+      for (var key : keys) {
+        assertEquals(-key, map.get(key));
+      }
+    }
+
     @Test
     public void mapComputesValuesLazily() {
       var keys = Set.of("apple", "banana", "cherry");
@@ -423,4 +540,2323 @@ public class RemiStableValueTest {
       }
     }
   }
-}
\ No newline at end of file
+
+
+  @Nested
+  public class MemoizeTests {
+
+    @Test
+    public void memoizeComputesValuesOnlyOnce() {
+      var computationCount = new AtomicInteger();
+      var function = RemiStableValue.<String, Integer>memoize(key -> {
+        computationCount.incrementAndGet();
+        return key.length();
+      });
+
+      for (var i = 0; i < 100; i++) {
+        assertEquals(5, function.apply("apple"));
+        assertEquals(6, function.apply("banana"));
+      }
+      assertEquals(2, computationCount.get());
+    }
+
+    @Test
+    public void memoizeSupportsMoreKeysThanTheInlineCache() {
+      var keys = IntStream.range(0, 100).boxed().toList();
+      var function = RemiStableValue.<Integer, Integer>memoize(2, key -> key * 2);
+
+      for (var i = 0; i < 50; i++) {
+        for (var key : keys) {
+          assertEquals(key * 2, function.apply(key));
+        }
+      }
+    }
+
+    @Test
+    public void memoizeFindsEqualKeysThatAreNotIdentical() {
+      var computationCount = new AtomicInteger();
+      var function = RemiStableValue.<String, Integer>memoize(key -> {
+        computationCount.incrementAndGet();
+        return key.length();
+      });
+
+      for (var i = 0; i < 100; i++) {  // the key is hot, so it is recorded in the inline cache
+        assertEquals(5, function.apply(new String("apple")));
+      }
+      assertEquals(1, computationCount.get());
+    }
+
+    @Test
+    public void memoizeThrowsExceptionForCyclicDefinition() {
+      var cyclicFunction = new Object() {
+        final Function<String, Integer> function = RemiStableValue.memoize(key -> {
+          if (key.equals("b")) {
+            return this.function.apply("b") + 1; // Cyclic definition
+          }
+          return key.hashCode();
+        });
+      }.function;
+
+      assertThrows(IllegalStateException.class, () -> cyclicFunction.apply("b"));
+    }
+
+    @Test
+    public void memoizeRelaysExceptions() {
+      var expected = new RuntimeException("Expected exception");
+      var computationCount = new AtomicInteger();
+      var function = RemiStableValue.<String, Integer>memoize(key -> {
+        if (computationCount.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return key.length();
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> function.apply("a"));
+      assertSame(expected, actual);
+      assertEquals(1, function.apply("a"));
+    }
+
+    @Test
+    public void memoizeRejectsNullKeys() {
+      var function = RemiStableValue.<String, Integer>memoize(String::length);
+
+      assertThrows(NullPointerException.class, () -> function.apply(null));
+    }
+
+    @Test
+    public void memoizeThrowsExceptionForNegativeInlineCacheSize() {
+      assertThrows(IllegalArgumentException.class, () -> RemiStableValue.memoize(-1, key -> key));
+    }
+
+    @Test
+    public void memoizeThrowsExceptionForTooLargeInlineCacheSize() {
+      assertThrows(IllegalArgumentException.class, () -> RemiStableValue.memoize(33, key -> key));
+    }
+
+    @Test
+    public void memoizeWithTheLargestInlineCacheSizeKeepsTheOtherKeysInTheTable() {
+      var function = RemiStableValue.<Integer, Integer>memoize(32, key -> key * 2);
+
+      for (var i = 0; i < 20; i++) {
+        for (var key = 0; key < 1_000; key++) {
+          assertEquals(key * 2, function.apply(key));
+        }
+      }
+    }
+
+    @Test
+    public void memoizeIsThreadSafe() {
+      var keys = List.of("a", "b", "c", "d", "e");
+      var computationCounts = keys.stream()
+          .collect(Collectors.toMap(k -> k, _ -> new AtomicInteger()));
+
+      var threadCount = 10;
+      var startLatch = new CountDownLatch(1);
+      var doneLatch = new CountDownLatch(threadCount);
+
+      var function = RemiStableValue.<String, Integer>memoize(key -> {
+        try {
+          Thread.sleep(100); // Simulate work
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return computationCounts.get(key).incrementAndGet();
+      });
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+        try(var executor = Executors.newFixedThreadPool(threadCount)) {
+          for (var i = 0; i < threadCount; i++) {
+            var threadKey = keys.get(i % keys.size()); // Each thread focuses on one key
+            executor.submit(() -> {
+              try {
+                startLatch.await(); // Wait for all threads to be ready
+                function.apply(threadKey);
+              } catch (InterruptedException e) {
+                throw new AssertionError(e);
+              } finally {
+                doneLatch.countDown();
+              }
+            });
+          }
+
+          startLatch.countDown(); // Start all threads
+          doneLatch.await(); // Wait for all threads to complete
+        }
+      });
+
+      for (var count : computationCounts.values()) {
+        assertEquals(1, count.get());
+      }
+    }
+  }
+
+  // the VM guarantees that all soft references are cleared before throwing an OutOfMemoryError
+  private static void clearSoftReferences() {
+    var sentinel = new SoftReference<>(new Object());
+    try {
+      var chunks = new ArrayList<byte[]>();
+      while (sentinel.get() != null) {
+        chunks.add(new byte[64 * 1024 * 1024]);
+      }
+    } catch (OutOfMemoryError e) {
+      // expected
+    }
+    assertNull(sentinel.get());
+  }
+
+  @Nested
+  public class SoftTests {
+
+    @Test
+    public void softSupplierComputesValueOnlyOnceWhenReachable() {
+      var counter = new AtomicInteger();
+      var softSupplier = RemiStableValue.softSupplier(counter::incrementAndGet);
+
+      assertEquals(1, softSupplier.get());
+      assertEquals(1, softSupplier.get());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void softSupplierRecomputesValueAfterMemoryPressure() {
+      var counter = new AtomicInteger();
+      var softSupplier = RemiStableValue.softSupplier(() -> "value " + counter.incrementAndGet());
+      assertEquals("value 1", softSupplier.get());
+
+      // the first collection unlinks the value, the second one releases it
+      assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+        while (softSupplier.get().equals("value 1")) {
+          clearSoftReferences();
+          Thread.sleep(10);  // let the cleaner unlink the value
+        }
+      });
+      assertEquals("value 2", softSupplier.get());
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void softSupplierKeepsAValueStillUsedWhenItIsUnlinked() throws InterruptedException {
+      var counter = new AtomicInteger();
+      var softSupplier = RemiStableValue.softSupplier(() -> "value " + counter.incrementAndGet());
+      assertEquals("value 1", softSupplier.get());
+
+      clearSoftReferences();  // clears the sentinel, not the value that is strongly reachable
+
+      for (var i = 0; i < 100; i++) {
+        Thread.sleep(10);  // let the cleaner unlink the value
+        assertEquals("value 1", softSupplier.get());
+      }
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void softSupplierThrowsExceptionForCyclicDefinition() {
+      var cyclicSupplier = new ArrayList<Supplier<Integer>>();
+      cyclicSupplier.add(RemiStableValue.softSupplier(() -> cyclicSupplier.getFirst().get() + 1));
+
+      assertThrows(IllegalStateException.class, () -> cyclicSupplier.getFirst().get());
+    }
+
+    @Test
+    public void softListComputesElementsOnlyOnceWhenReachable() {
+      var computationCount = new AtomicInteger();
+      var list = RemiStableValue.softList(10, index -> {
+        computationCount.incrementAndGet();
+        return index * 2;
+      });
+
+      for (var i = 0; i < 3; i++) {
+        assertEquals(0, list.get(0));
+        assertEquals(6, list.get(3));
+      }
+      assertEquals(2, computationCount.get());
+    }
+
+    @Test
+    public void softListReadInOrderDoesNotOverflowTheStack() {
+      var list = RemiStableValue.softList(20_000, index -> index * 2);
+
+      for (var i = 0; i < 20_000; i++) {
+        assertEquals(i * 2, list.get(i));
+      }
+      for (var i = 0; i < 20_000; i++) {
+        assertEquals(i * 2, list.get(i));
+      }
+    }
+
+    @Test
+    public void softListRecomputesElementsAfterMemoryPressure() {
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.softList(3, index -> index + ":" + counter.incrementAndGet());
+      assertEquals("1:1", list.get(1));
+
+      // the first collection unlinks the element, the second one releases it
+      assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+        while (list.get(1).equals("1:1")) {
+          clearSoftReferences();
+          Thread.sleep(10);  // let the cleaner unlink the element
+        }
+      });
+      assertEquals("1:2", list.get(1));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void softListKeepsElementsStillUsedWhenTheyAreUnlinked() throws InterruptedException {
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.softList(3, index -> index + ":" + counter.incrementAndGet());
+      assertEquals("0:1", list.get(0));
+      assertEquals("1:2", list.get(1));
+
+      clearSoftReferences();  // clears the sentinels, not the elements that are strongly reachable
+
+      for (var i = 0; i < 100; i++) {
+        Thread.sleep(10);  // let the cleaner unlink the elements
+        assertEquals("0:1", list.get(0));
+        assertEquals("1:2", list.get(1));
+      }
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void softListThrowsExceptionForOutOfBounds() {
+      var list = RemiStableValue.softList(5, i -> i);
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(5)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1))
+      );
+    }
+
+    @Test
+    public void softListTryGetAndGetWithTimeout() throws InterruptedException, TimeoutException {
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.softList(3, index -> index + ":" + counter.incrementAndGet());
+
+      assertEquals(Optional.empty(), list.tryGet(1));
+      assertEquals("1:1", list.get(1, Duration.ofSeconds(1)));
+      assertEquals(Optional.of("1:1"), list.tryGet(1));
+      assertEquals("1:1", list.get(1));
+      assertEquals(1, counter.get());
+      assertThrows(IndexOutOfBoundsException.class, () -> list.tryGet(3));
+    }
+  }
+
+  @Nested
+  public class QuasiConstantTests {
+
+    @Test
+    public void quasiConstantReturnsInitialValue() {
+      var quasiConstant = RemiStableValue.quasiConstant("initial");
+
+      assertEquals("initial", quasiConstant.get());
+      assertEquals("initial", quasiConstant.get());
+    }
+
+    @Test
+    public void quasiConstantReturnsUpdatedValue() {
+      var quasiConstant = RemiStableValue.quasiConstant(1);
+
+      quasiConstant.update(2);
+      assertEquals(2, quasiConstant.get());
+      quasiConstant.update(3);
+      assertEquals(3, quasiConstant.get());
+    }
+
+    @Test
+    public void quasiConstantRejectsNullValues() {
+      assertThrows(NullPointerException.class, () -> RemiStableValue.quasiConstant(null));
+
+      var quasiConstant = RemiStableValue.quasiConstant("initial");
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> quasiConstant.update(null)),
+          () -> assertEquals("initial", quasiConstant.get())
+      );
+    }
+
+    @Test
+    public void quasiConstantUpdateIsVisibleToOtherThreads() throws InterruptedException {
+      var quasiConstant = RemiStableValue.quasiConstant(0);
+      var reader = Thread.ofPlatform().start(() -> {
+        while (quasiConstant.get() == 0) {
+          Thread.onSpinWait();
+        }
+      });
+
+      quasiConstant.update(1);
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> reader.join());
+    }
+  }
+
+  @Nested
+  public class FlagTests {
+
+    @Test
+    public void flagReturnsInitialValue() {
+      assertAll(
+          () -> assertTrue(RemiStableValue.flag(true).isEnabled()),
+          () -> assertFalse(RemiStableValue.flag(false).isEnabled())
+      );
+    }
+
+    @Test
+    public void flagCanBeFlipped() {
+      var flag = RemiStableValue.flag(false);
+
+      flag.enable();
+      assertTrue(flag.isEnabled());
+      flag.enable();
+      assertTrue(flag.isEnabled());
+      flag.disable();
+      assertFalse(flag.isEnabled());
+    }
+
+    @Test
+    public void flagFlipIsVisibleToOtherThreads() {
+      var flag = RemiStableValue.flag(false);
+      var reader = Thread.ofPlatform().start(() -> {
+        while (!flag.isEnabled()) {
+          Thread.onSpinWait();
+        }
+      });
+
+      flag.enable();
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> reader.join());
+    }
+  }
+
+  @Nested
+  public class SegmentListTests {
+    record Point(int x, int y) {
+      static Point decode(MemorySegment segment) {
+        return new Point(segment.get(JAVA_INT, 0), segment.get(JAVA_INT, 4));
+      }
+    }
+
+    @Test
+    public void segmentListDecodesRecordsLazily() {
+      var computationCount = new AtomicInteger();
+      var segment = MemorySegment.ofArray(new int[] { 1, 2, 3, 4, 5, 6 });
+      var list = RemiStableValue.list(segment, 8, slice -> {
+        computationCount.incrementAndGet();
+        return Point.decode(slice);
+      });
+
+      assertAll(
+          () -> assertEquals(3, list.size()),
+          () -> assertEquals(0, computationCount.get())
+      );
+      assertEquals(new Point(3, 4), list.get(1));
+      assertEquals(new Point(3, 4), list.get(1));
+      assertEquals(1, computationCount.get());
+      assertEquals(List.of(new Point(1, 2), new Point(3, 4), new Point(5, 6)), list);
+      assertEquals(3, computationCount.get());
+    }
+
+    @Test
+    public void segmentListDecodesMappedFile() throws IOException {
+      var path = Files.createTempFile("segment-list", ".bin");
+      try {
+        var buffer = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
+        buffer.putInt(10).putInt(20).putInt(30).putInt(40);
+        Files.write(path, buffer.array());
+
+        try(var channel = FileChannel.open(path, StandardOpenOption.READ);
+            var arena = Arena.ofShared()) {
+          var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+          var list = RemiStableValue.list(segment, 8, Point::decode);
+
+          assertEquals(List.of(new Point(10, 20), new Point(30, 40)), list);
+        }
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void segmentListRejectsInvalidStride() {
+      var segment = MemorySegment.ofArray(new byte[10]);
+
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.list(segment, 0, s -> s)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.list(segment, 4, s -> s))
+      );
+    }
+  }
+
+  @Nested
+  public class HolderSupplierTests {
+
+    @Test
+    public void holderSupplierComputesValueOnlyOnce() {
+      var counter = new AtomicInteger();
+      var holderSupplier = RemiStableValue.holderSupplier(counter::incrementAndGet);
+
+      assertEquals(0, counter.get());
+      assertEquals(1, holderSupplier.get());
+      assertEquals(1, holderSupplier.get());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void holderSupplierRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var holderSupplier = RemiStableValue.holderSupplier(() -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return "value";
+      });
+
+      var actual = assertThrows(RuntimeException.class, holderSupplier::get);
+      assertSame(expected, actual);
+      assertEquals("value", holderSupplier.get());
+      assertEquals("value", holderSupplier.get());
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void holderSupplierThrowsExceptionForCyclicDefinition() {
+      var cyclicSupplier = new ArrayList<Supplier<Integer>>();
+      cyclicSupplier.add(RemiStableValue.holderSupplier(() -> cyclicSupplier.getFirst().get() + 1));
+
+      assertThrows(IllegalStateException.class, () -> cyclicSupplier.getFirst().get());
+    }
+
+    @Test
+    public void holderSupplierComputesTheValueInTheStaticInitializerOfAHiddenClass() {
+      var walker = StackWalker.getInstance(
+          Set.of(StackWalker.Option.RETAIN_CLASS_REFERENCE, StackWalker.Option.SHOW_HIDDEN_FRAMES));
+      var holderSupplier = RemiStableValue.holderSupplier(() -> walker.walk(frames -> frames
+          .anyMatch(frame -> frame.getMethodName().equals("<clinit>") && frame.getDeclaringClass().isHidden())));
+
+      assertTrue(holderSupplier.get());
+    }
+
+    @Test
+    public void holderSupplierTryGetDoesNotCompute() {
+      var counter = new AtomicInteger();
+      var holderSupplier = RemiStableValue.holderSupplier(counter::incrementAndGet);
+
+      assertEquals(Optional.empty(), holderSupplier.tryGet());
+      assertEquals(0, counter.get());
+      assertEquals(1, holderSupplier.get());
+      assertEquals(Optional.of(1), holderSupplier.tryGet());
+    }
+
+    @Test
+    public void holderSupplierGetWithTimeoutComputesTheValueOnlyOnce() throws InterruptedException, TimeoutException {
+      var counter = new AtomicInteger();
+      var holderSupplier = RemiStableValue.holderSupplier(counter::incrementAndGet);
+
+      assertEquals(1, holderSupplier.get(Duration.ofMillis(10)));
+      assertEquals(Optional.of(1), holderSupplier.tryGet());
+      assertEquals(1, holderSupplier.get());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void holderSupplierGetWithTimeoutDoesNotWaitForever() throws InterruptedException, TimeoutException {
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var holderSupplier = RemiStableValue.holderSupplier(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return "value";
+      });
+
+      var thread = Thread.ofPlatform().start(holderSupplier::get);
+      started.await();
+      assertEquals(Optional.empty(), holderSupplier.tryGet());
+      assertThrows(TimeoutException.class, () -> holderSupplier.get(Duration.ofMillis(50)));
+
+      release.countDown();
+      assertEquals("value", holderSupplier.get(Duration.ofSeconds(10)));
+      thread.join();
+    }
+
+    @Test
+    public void holderSupplierRejectsNullValues() {
+      var holderSupplier = RemiStableValue.holderSupplier(() -> null);
+
+      assertThrows(NullPointerException.class, holderSupplier::get);
+    }
+
+    @Test
+    public void holderSupplierIsThreadSafe() {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var startLatch = new CountDownLatch(1);
+      var doneLatch = new CountDownLatch(threadCount);
+
+      var holderSupplier = RemiStableValue.holderSupplier(() -> {
+        try {
+          Thread.sleep(100); // Simulate work
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return counter.incrementAndGet();
+      });
+
+      var results = ConcurrentHashMap.<Integer>newKeySet();
+
+      try(var executor = Executors.newFixedThreadPool(threadCount)) {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+          for (var i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+              try {
+                startLatch.await(); // Wait for all threads to be ready
+                results.add(holderSupplier.get());
+              } catch (InterruptedException e) {
+                throw new AssertionError(e);
+              } finally {
+                doneLatch.countDown();
+              }
+            });
+          }
+
+          startLatch.countDown(); // Start all threads
+          doneLatch.await(); // Wait for all threads to complete
+        });
+      }
+
+      assertAll(
+          () -> assertEquals(1, counter.get()),
+          () -> assertEquals(Set.of(1), results)
+      );
+    }
+  }
+
+  @Nested
+  public class LazyInterfaceTests {
+    public interface Config {
+      String host();
+      int port();
+      boolean secure();
+
+      default String url() {
+        return (secure() ? "https://" : "http://") + host() + ":" + port();
+      }
+    }
+
+    public interface Service {
+      void start();
+    }
+
+    interface PackagePrivateConfig {
+      String host();
+    }
+
+    @Test
+    public void lazyInterfaceComputesAccessorsLazily() {
+      var hostCounter = new AtomicInteger();
+      var portCounter = new AtomicInteger();
+      var config = RemiStableValue.lazyInterface(Config.class, Map.of(
+          "host", () -> { hostCounter.incrementAndGet(); return "localhost"; },
+          "port", () -> { portCounter.incrementAndGet(); return 8080; },
+          "secure", () -> true));
+
+      assertEquals(0, hostCounter.get());
+      assertEquals("localhost", config.host());
+      assertEquals("localhost", config.host());
+      assertEquals(1, hostCounter.get());
+      assertEquals(0, portCounter.get());
+      assertEquals(8080, config.port());
+      assertEquals(8080, config.port());
+      assertEquals(1, portCounter.get());
+    }
+
+    @Test
+    public void lazyInterfaceIsImplementedByAHiddenClass() {
+      var config = RemiStableValue.lazyInterface(Config.class, Map.of(
+          "host", () -> "localhost",
+          "port", () -> 8080,
+          "secure", () -> true));
+
+      assertAll(
+          () -> assertTrue(config.getClass().isHidden()),
+          () -> assertEquals(RemiStableValue.class.getPackageName(), config.getClass().getPackageName()),
+          () -> assertEquals("https://localhost:8080", config.url())
+      );
+    }
+
+    @Test
+    public void lazyInterfaceDoesNotOverrideDefaultMethods() {
+      var config = RemiStableValue.lazyInterface(Config.class, Map.of(
+          "host", () -> "localhost",
+          "port", () -> 8080,
+          "secure", () -> false));
+
+      assertEquals("http://localhost:8080", config.url());
+    }
+
+    @Test
+    public void lazyInterfaceRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var config = RemiStableValue.lazyInterface(Config.class, Map.of(
+          "host", () -> {
+            if (counter.incrementAndGet() == 1) {
+              throw expected;
+            }
+            return "localhost";
+          },
+          "port", () -> 8080,
+          "secure", () -> false));
+
+      var actual = assertThrows(RuntimeException.class, config::host);
+      assertSame(expected, actual);
+      assertEquals("localhost", config.host());
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void lazyInterfaceThrowsExceptionForCyclicDefinition() {
+      var configs = new ArrayList<Config>();
+      configs.add(RemiStableValue.lazyInterface(Config.class, Map.of(
+          "host", () -> configs.getFirst().host() + "1",
+          "port", () -> 8080,
+          "secure", () -> false)));
+
+      assertThrows(IllegalStateException.class, () -> configs.getFirst().host());
+    }
+
+    @Test
+    public void lazyInterfaceChecksTheTypeOfTheValues() {
+      var config = RemiStableValue.lazyInterface(Config.class, Map.of(
+          "host", () -> 42,
+          "port", () -> "8080",
+          "secure", () -> false));
+
+      assertAll(
+          () -> assertThrows(ClassCastException.class, config::host),
+          () -> assertThrows(ClassCastException.class, config::port)
+      );
+    }
+
+    @Test
+    public void lazyInterfaceRejectsMissingOrUnknownSuppliers() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(Config.class, Map.of("host", () -> "localhost", "port", () -> 8080))),
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(Config.class, Map.of(
+                  "host", () -> "localhost", "port", () -> 8080, "secure", () -> false, "user", () -> "bob")))
+      );
+    }
+
+    @Test
+    public void lazyInterfaceRejectsInvalidInterfaces() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(Service.class, Map.of("start", () -> "started"))),
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(PackagePrivateConfig.class, Map.of("host", () -> "localhost"))),
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(String.class, Map.of())),
+          () -> assertThrows(NullPointerException.class,
+              () -> RemiStableValue.lazyInterface(null, Map.of())),
+          () -> assertThrows(NullPointerException.class,
+              () -> RemiStableValue.lazyInterface(Config.class, null))
+      );
+    }
+
+    @Test
+    public void lazyInterfaceWithLookupImplementsPackagePrivateInterfaces() {
+      var counter = new AtomicInteger();
+      var config = RemiStableValue.lazyInterface(MethodHandles.lookup(), PackagePrivateConfig.class, Map.of(
+          "host", () -> { counter.incrementAndGet(); return "localhost"; }));
+
+      assertEquals("localhost", config.host());
+      assertEquals("localhost", config.host());
+      assertEquals(1, counter.get());
+      assertEquals(RemiStableValueTest.class.getPackageName(), config.getClass().getPackageName());
+    }
+
+    @Test
+    public void lazyInterfaceWithLookupRejectsInvalidLookupsAndInterfaces() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(MethodHandles.lookup().dropLookupMode(MethodHandles.Lookup.PRIVATE),
+                  PackagePrivateConfig.class, Map.of("host", () -> "localhost"))),
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(MethodHandles.lookup(), String.class, Map.of())),
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.lazyInterface(MethodHandles.lookup(), Service.class, Map.of("start", () -> "started"))),
+          () -> assertThrows(NullPointerException.class,
+              () -> RemiStableValue.lazyInterface(null, Config.class, Map.of()))
+      );
+    }
+  }
+
+  @Nested
+  public class ProxyTests {
+    public interface Calculator {
+      int add(int a, int b);
+      double scale(double value, long factor);
+      String describe(String name);
+      void reset();
+
+      default String name() {
+        return "calculator";
+      }
+    }
+
+    public static class SimpleCalculator implements Calculator {
+      private int resetCount;
+
+      @Override
+      public int add(int a, int b) {
+        return a + b;
+      }
+
+      @Override
+      public double scale(double value, long factor) {
+        return value * factor;
+      }
+
+      @Override
+      public String describe(String name) {
+        return "calculator " + name;
+      }
+
+      @Override
+      public void reset() {
+        resetCount++;
+      }
+
+      @Override
+      public String name() {
+        return "simple";
+      }
+    }
+
+    @Test
+    public void proxyCreatesDelegateOnFirstUse() {
+      var counter = new AtomicInteger();
+      var proxy = RemiStableValue.proxy(Calculator.class, () -> {
+        counter.incrementAndGet();
+        return new SimpleCalculator();
+      });
+
+      assertEquals(0, counter.get());
+      assertEquals(3, proxy.add(1, 2));
+      assertEquals(7, proxy.add(3, 4));
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void proxyForwardsAllMethods() {
+      var delegate = new SimpleCalculator();
+      var proxy = RemiStableValue.proxy(Calculator.class, () -> delegate);
+
+      proxy.reset();
+      proxy.reset();
+      assertAll(
+          () -> assertEquals(3, proxy.add(1, 2)),
+          () -> assertEquals(7.5, proxy.scale(2.5, 3L)),
+          () -> assertEquals("calculator foo", proxy.describe("foo")),
+          () -> assertEquals("simple", proxy.name()),
+          () -> assertEquals(2, delegate.resetCount)
+      );
+    }
+
+    @Test
+    public void proxyIsImplementedByAHiddenClass() {
+      var proxy = RemiStableValue.proxy(Calculator.class, SimpleCalculator::new);
+
+      assertAll(
+          () -> assertTrue(proxy.getClass().isHidden()),
+          () -> assertEquals(RemiStableValue.class.getPackageName(), proxy.getClass().getPackageName()),
+          () -> assertEquals(10.0, proxy.scale(2.5, 4L))
+      );
+    }
+
+    @Test
+    public void proxyRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var proxy = RemiStableValue.proxy(Calculator.class, () -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return new SimpleCalculator();
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> proxy.add(1, 2));
+      assertSame(expected, actual);
+      assertEquals(3, proxy.add(1, 2));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void proxyRelaysExceptionsOfTheDelegate() {
+      var expected = new UnsupportedOperationException("Expected exception");
+      var proxy = RemiStableValue.proxy(Runnable.class, () -> () -> { throw expected; });
+
+      var actual = assertThrows(UnsupportedOperationException.class, proxy::run);
+      assertSame(expected, actual);
+    }
+
+    @Test
+    public void proxyThrowsExceptionForCyclicDefinition() {
+      var proxies = new ArrayList<Calculator>();
+      proxies.add(RemiStableValue.proxy(Calculator.class, () -> {
+        proxies.getFirst().reset();
+        return new SimpleCalculator();
+      }));
+
+      assertThrows(IllegalStateException.class, () -> proxies.getFirst().add(1, 2));
+    }
+
+    @Test
+    public void proxyRejectsInvalidInterfaces() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> RemiStableValue.proxy(SimpleCalculator.class, SimpleCalculator::new)),
+          () -> assertThrows(NullPointerException.class,
+              () -> RemiStableValue.proxy(null, SimpleCalculator::new)),
+          () -> assertThrows(NullPointerException.class,
+              () -> RemiStableValue.proxy(Calculator.class, null))
+      );
+    }
+  }
+
+  @Nested
+  public class FailurePolicyTests {
+
+    @Test
+    public void supplierCachesFailureForADuration() throws InterruptedException {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var supplier = RemiStableValue.supplier(() -> {
+        if (counter.incrementAndGet() <= 2) {
+          throw expected;
+        }
+        return "value";
+      }, FailurePolicy.cacheFor(Duration.ofMillis(200)));
+
+      assertSame(expected, assertThrows(RuntimeException.class, supplier::get));
+      assertSame(expected, assertThrows(RuntimeException.class, supplier::get));
+      assertEquals(1, counter.get());
+
+      Thread.sleep(300);
+      assertSame(expected, assertThrows(RuntimeException.class, supplier::get));
+      assertEquals(2, counter.get());
+
+      Thread.sleep(300);
+      assertEquals("value", supplier.get());
+      assertEquals("value", supplier.get());
+      assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void supplierRetriesWithBackoff() throws InterruptedException {
+      var counter = new AtomicInteger();
+      var supplier = RemiStableValue.supplier(() -> {
+        counter.incrementAndGet();
+        throw new IllegalStateException("down");
+      }, FailurePolicy.backoff(Duration.ofMillis(100), Duration.ofSeconds(10)));
+
+      assertThrows(IllegalStateException.class, supplier::get);
+      assertEquals(1, counter.get());
+      Thread.sleep(150);  // first delay is 100 ms
+      assertThrows(IllegalStateException.class, supplier::get);
+      assertEquals(2, counter.get());
+      Thread.sleep(150);  // second delay is 200 ms
+      assertThrows(IllegalStateException.class, supplier::get);
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void supplierRetriesOnNextAccessWithRetryPolicy() {
+      var counter = new AtomicInteger();
+      var supplier = RemiStableValue.supplier(() -> {
+        counter.incrementAndGet();
+        throw new IllegalStateException("down");
+      }, FailurePolicy.retry());
+
+      assertThrows(IllegalStateException.class, supplier::get);
+      assertThrows(IllegalStateException.class, supplier::get);
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void waitingThreadsShareTheInFlightFailure() throws InterruptedException {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var expected = new IllegalStateException("down");
+      var supplier = RemiStableValue.supplier(() -> {
+        counter.incrementAndGet();
+        try {
+          Thread.sleep(200);  // slow failing dependency
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        throw expected;
+      }, FailurePolicy.retry());
+
+      var failures = ConcurrentHashMap.<Throwable>newKeySet();
+      var threads = IntStream.range(0, threadCount)
+          .mapToObj(_ -> Thread.ofPlatform().start(() -> {
+            try {
+              supplier.get();
+            } catch (IllegalStateException e) {
+              failures.add(e);
+            }
+          }))
+          .toList();
+      for (var thread : threads) {
+        thread.join();
+      }
+
+      assertEquals(1, counter.get());
+      assertEquals(Set.of(expected), failures);
+    }
+
+    @Test
+    public void listCachesFailurePerIndex() {
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.list(3, index -> {
+        counter.incrementAndGet();
+        if (index == 1) {
+          throw new IllegalStateException("down");
+        }
+        return index;
+      }, FailurePolicy.cacheFor(Duration.ofMinutes(1)));
+
+      assertThrows(IllegalStateException.class, () -> list.get(1));
+      assertThrows(IllegalStateException.class, () -> list.get(1));
+      assertEquals(0, list.get(0));
+      assertEquals(2, list.get(2));
+      assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void mapCachesFailurePerKey() {
+      var counter = new AtomicInteger();
+      var map = RemiStableValue.map(Set.of("a", "b"), key -> {
+        counter.incrementAndGet();
+        if (key.equals("b")) {
+          throw new IllegalStateException("down");
+        }
+        return key.toUpperCase();
+      }, FailurePolicy.cacheFor(Duration.ofMinutes(1)));
+
+      assertThrows(IllegalStateException.class, () -> map.get("b"));
+      assertThrows(IllegalStateException.class, () -> map.get("b"));
+      assertEquals("A", map.get("a"));
+      assertNull(map.get("c"));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void mapWithoutRecordedFailureRetries() {
+      var counter = new AtomicInteger();
+      var map = RemiStableValue.map(Set.of("a"), key -> {
+        if (counter.incrementAndGet() == 1) {
+          throw new IllegalStateException("down");
+        }
+        return key.toUpperCase();
+      }, FailurePolicy.retry());
+
+      assertThrows(IllegalStateException.class, () -> map.get("a"));
+      assertTrue(map.containsKey("a"));
+      assertEquals("A", map.get("a"));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void failurePolicySaturatesTooLongDelays() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var supplier = RemiStableValue.supplier(() -> {
+        counter.incrementAndGet();
+        throw expected;
+      }, FailurePolicy.cacheFor(Duration.ofSeconds(Long.MAX_VALUE)));
+
+      assertSame(expected, assertThrows(RuntimeException.class, supplier::get));
+      assertSame(expected, assertThrows(RuntimeException.class, supplier::get));
+      assertEquals(1, counter.get());
+      assertDoesNotThrow(() -> FailurePolicy.backoff(Duration.ofSeconds(1), Duration.ofSeconds(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void failurePolicyRejectsInvalidDelays() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> FailurePolicy.cacheFor(Duration.ofSeconds(-1))),
+          () -> assertThrows(IllegalArgumentException.class, () -> FailurePolicy.backoff(Duration.ofSeconds(2), Duration.ofSeconds(1))),
+          () -> assertThrows(IllegalArgumentException.class, () -> FailurePolicy.backoff(Duration.ZERO, Duration.ofSeconds(1))),
+          () -> assertThrows(NullPointerException.class, () -> FailurePolicy.cacheFor(null)),
+          () -> assertThrows(NullPointerException.class, () -> RemiStableValue.supplier(() -> "", null))
+      );
+    }
+  }
+
+  @Nested
+  public class TryGetTests {
+
+    // starts a thread that computes the value with get and waits until the computation has started
+    private Thread startSlowComputation(Runnable get, CountDownLatch started) throws InterruptedException {
+      var thread = Thread.ofPlatform().start(get);
+      started.await();
+      return thread;
+    }
+
+    @Test
+    public void supplierTryGetDoesNotCompute() {
+      var counter = new AtomicInteger();
+      var supplier = RemiStableValue.supplier(counter::incrementAndGet);
+
+      assertEquals(Optional.empty(), supplier.tryGet());
+      assertEquals(0, counter.get());
+      assertEquals(1, supplier.get());
+      assertEquals(Optional.of(1), supplier.tryGet());
+    }
+
+    @Test
+    public void supplierGetWithTimeoutComputesIfNoOtherThreadComputes() throws InterruptedException, TimeoutException {
+      var supplier = RemiStableValue.supplier(() -> "value");
+
+      assertEquals("value", supplier.get(Duration.ofMillis(10)));
+      assertEquals(Optional.of("value"), supplier.tryGet());
+    }
+
+    @Test
+    public void supplierGetWithTimeoutDoesNotWaitForever() throws InterruptedException, TimeoutException {
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var supplier = RemiStableValue.supplier(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return "value";
+      });
+
+      var thread = startSlowComputation(supplier::get, started);
+      assertEquals(Optional.empty(), supplier.tryGet());
+      assertThrows(TimeoutException.class, () -> supplier.get(Duration.ofMillis(50)));
+
+      release.countDown();
+      assertEquals("value", supplier.get(Duration.ofSeconds(10)));
+      thread.join();
+    }
+
+    @Test
+    public void supplierGetWithTimeoutIsInterruptible() throws InterruptedException {
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var supplier = RemiStableValue.supplier(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return "value";
+      });
+
+      var thread = startSlowComputation(supplier::get, started);
+      Thread.currentThread().interrupt();
+      try {
+        assertThrows(InterruptedException.class, () -> supplier.get(Duration.ofSeconds(10)));
+      } finally {
+        Thread.interrupted();
+        release.countDown();
+        thread.join();
+      }
+    }
+
+    @Test
+    public void listTryGetAndGetWithTimeout() throws InterruptedException, TimeoutException {
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var list = RemiStableValue.list(3, index -> {
+        if (index == 0) {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        }
+        return index * 10;
+      });
+
+      assertEquals(Optional.empty(), list.tryGet(1));
+      assertEquals(10, list.get(1, Duration.ofMillis(10)));
+      assertEquals(Optional.of(10), list.tryGet(1));
+
+      var thread = startSlowComputation(() -> list.get(0), started);
+      assertEquals(Optional.empty(), list.tryGet(0));
+      assertThrows(TimeoutException.class, () -> list.get(0, Duration.ofMillis(50)));
+
+      release.countDown();
+      assertEquals(0, list.get(0, Duration.ofSeconds(10)));
+      thread.join();
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.tryGet(3)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1, Duration.ofMillis(10)))
+      );
+    }
+
+    @Test
+    public void mapTryGetAndGetWithTimeout() throws InterruptedException, TimeoutException {
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var map = RemiStableValue.map(Set.of("slow", "fast"), key -> {
+        if (key.equals("slow")) {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+        }
+        return key.toUpperCase();
+      });
+
+      assertEquals(Optional.empty(), map.tryGet("fast"));
+      assertEquals("FAST", map.get("fast", Duration.ofMillis(10)));
+      assertEquals(Optional.of("FAST"), map.tryGet("fast"));
+      assertEquals(Optional.empty(), map.tryGet("unknown"));
+      assertNull(map.get("unknown", Duration.ofMillis(10)));
+
+      var thread = startSlowComputation(() -> map.get("slow"), started);
+      assertEquals(Optional.empty(), map.tryGet("slow"));
+      assertThrows(TimeoutException.class, () -> map.get("slow", Duration.ofMillis(50)));
+
+      release.countDown();
+      assertEquals("SLOW", map.get("slow", Duration.ofSeconds(10)));
+      thread.join();
+    }
+  }
+
+  @Nested
+  public class TableTests {
+
+    @Test
+    public void tableComputesCellsOnlyOnce() {
+      var counter = new AtomicInteger();
+      var table = RemiStableValue.table(3, 4, (row, column) -> {
+        counter.incrementAndGet();
+        return row + ":" + column;
+      });
+
+      assertEquals(3, table.rows());
+      assertEquals(4, table.columns());
+      assertEquals(0, counter.get());
+      assertEquals("2:3", table.get(2, 3));
+      assertEquals("2:3", table.get(2, 3));
+      assertEquals("0:1", table.get(0, 1));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void tableComputesAllCellsCorrectly() {
+      var table = RemiStableValue.table(30, 20, (row, column) -> row * 100 + column);
+
+      for (var row = 0; row < 30; row++) {
+        for (var column = 0; column < 20; column++) {
+          assertEquals(row * 100 + column, table.get(row, column));
+        }
+      }
+    }
+
+    @Test
+    public void tableCanBeUsedForDynamicProgramming() {
+      var binomials = new ArrayList<StableTable.OfInt>();
+      binomials.add(RemiStableValue.intTable(20, 20, (n, k) -> {
+        if (k == 0 || k == n) {
+          return 1;
+        }
+        if (k > n) {
+          return 0;
+        }
+        var table = binomials.getFirst();
+        return table.getInt(n - 1, k - 1) + table.getInt(n - 1, k);
+      }));
+
+      var binomial = binomials.getFirst();
+      assertEquals(92_378, binomial.getInt(19, 9));
+      assertEquals(1, binomial.getInt(19, 19));
+      assertEquals(0, binomial.getInt(3, 4));
+    }
+
+    @Test
+    public void tableThrowsExceptionForCyclicDefinition() {
+      var tables = new ArrayList<StableTable<Integer>>();
+      tables.add(RemiStableValue.table(2, 2, (row, column) -> tables.getFirst().get(row, column) + 1));
+
+      assertThrows(IllegalStateException.class, () -> tables.getFirst().get(1, 1));
+    }
+
+    @Test
+    public void tableRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var table = RemiStableValue.doubleTable(2, 2, (row, column) -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return row + column / 2.0;
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> table.getDouble(1, 1));
+      assertSame(expected, actual);
+      assertEquals(1.5, table.getDouble(1, 1));
+      assertEquals(1.5, table.getDouble(1, 1));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void tableChecksBounds() {
+      var table = RemiStableValue.table(2, 3, (row, column) -> "");
+      var intTable = RemiStableValue.intTable(2, 3, (row, column) -> 0);
+      var doubleTable = RemiStableValue.doubleTable(2, 3, (row, column) -> 0.0);
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> table.get(2, 0)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> table.get(0, 3)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> table.get(-1, 0)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> table.get(1, -1)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> intTable.getInt(0, 3)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> doubleTable.getDouble(2, 0))
+      );
+    }
+
+    @Test
+    public void tableRejectsInvalidSizes() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.table(-1, 2, (row, column) -> "")),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.intTable(2, -1, (row, column) -> 0)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.doubleTable(1 << 16, 1 << 16, (row, column) -> 0.0)),
+          () -> assertThrows(NullPointerException.class, () -> RemiStableValue.table(1, 1, null))
+      );
+    }
+
+    @Test
+    public void tableIsThreadSafe() throws Exception {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var table = RemiStableValue.intTable(8, 8, (row, column) -> {
+        counter.incrementAndGet();
+        return row * column;
+      });
+
+      ConcurrentTasks.run(threadCount, _ -> {
+        for (var row = 0; row < 8; row++) {
+          for (var column = 0; column < 8; column++) {
+            assertEquals(row * column, table.getInt(row, column));
+          }
+        }
+      });
+
+      assertEquals(64, counter.get());
+    }
+  }
+
+  @Nested
+  public class SparseListTests {
+
+    @Test
+    public void sparseListComputesElementsOnlyOnce() {
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.sparseList(5_000, index -> {
+        counter.incrementAndGet();
+        return "" + index;
+      });
+
+      assertEquals(5_000, list.size());
+      assertEquals("4999", list.get(4_999));
+      assertEquals("4999", list.get(4_999));
+      assertEquals("1024", list.get(1_024));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void sparseListComputesAllElementsCorrectly() {
+      var list = RemiStableValue.sparseList(3_000, index -> index * 2);
+
+      for (var i = 0; i < 3_000; i++) {
+        assertEquals(i * 2, list.get(i));
+      }
+      assertEquals(IntStream.range(0, 3_000).mapToObj(i -> i * 2).toList(), list);
+    }
+
+    @Test
+    public void sparseListCanBeVeryLarge() {
+      var list = RemiStableValue.sparseList(200_000_000, index -> index);
+
+      assertEquals(199_999_999, list.get(199_999_999));
+      assertEquals(100_000_000, list.get(100_000_000));
+      assertEquals(Optional.empty(), list.tryGet(0));
+    }
+
+    @Test
+    public void sparseListChecksBounds() {
+      var list = RemiStableValue.sparseList(10, index -> index);
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(10)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.sparseList(-1, index -> index))
+      );
+    }
+
+    @Test
+    public void sparseListRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.sparseList(10, index -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return index;
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> list.get(3));
+      assertSame(expected, actual);
+      assertEquals(3, list.get(3));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void sparseListThrowsExceptionForCyclicDefinition() {
+      var lists = new ArrayList<List<Integer>>();
+      lists.add(RemiStableValue.sparseList(10, index -> lists.getFirst().get(index) + 1));
+
+      assertThrows(IllegalStateException.class, () -> lists.getFirst().get(5));
+    }
+
+    @Test
+    public void sparseListIsThreadSafe() throws Exception {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.sparseList(10_000, index -> {
+        counter.incrementAndGet();
+        return index;
+      });
+
+      ConcurrentTasks.run(threadCount, _ -> {
+        for (var index = 0; index < 10_000; index += 7) {
+          assertEquals(index, list.get(index));
+        }
+      });
+
+      assertEquals((10_000 + 6) / 7, counter.get());
+    }
+  }
+
+
+  @Nested
+  public class OffHeapArrayTests {
+
+    @Test
+    public void offHeapLongArrayComputesElementsOnlyOnce() {
+      var counter = new AtomicInteger();
+      var array = RemiStableValue.offHeapLongArray(1_000, index -> {
+        counter.incrementAndGet();
+        return index * 3;
+      });
+
+      assertEquals(1_000, array.size());
+      assertEquals(2_997, array.getLong(999));
+      assertEquals(2_997, array.getLong(999));
+      assertEquals(0, array.getLong(0));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void offHeapLongArrayComputesAllElementsCorrectly() {
+      var array = RemiStableValue.offHeapLongArray(1_000, index -> -index);
+
+      for (var i = 0L; i < 1_000; i++) {
+        assertEquals(-i, array.getLong(i));
+      }
+    }
+
+    @Test
+    public void offHeapLongArrayElementsSharingAWordAreIndependent() {
+      var counter = new AtomicInteger();
+      var array = RemiStableValue.offHeapLongArray(200, index -> {
+        counter.incrementAndGet();
+        return index;
+      });
+
+      assertEquals(63, array.getLong(63));
+      assertEquals(64, array.getLong(64));
+      assertEquals(65, array.getLong(65));
+      assertEquals(62, array.getLong(62));
+      assertEquals(4, counter.get());
+    }
+
+    @Test
+    public void offHeapDoubleArrayComputesElements() {
+      var array = RemiStableValue.offHeapDoubleArray(100, index -> index / 2.0);
+
+      assertEquals(100, array.size());
+      assertEquals(49.5, array.getDouble(99));
+      assertEquals(0.0, array.getDouble(0));
+    }
+
+    @Test
+    public void offHeapArrayCanBeEmpty() {
+      var array = RemiStableValue.offHeapLongArray(0, index -> index);
+
+      assertEquals(0, array.size());
+      assertThrows(IndexOutOfBoundsException.class, () -> array.getLong(0));
+    }
+
+    @Test
+    public void offHeapArrayChecksBounds() {
+      var array = RemiStableValue.offHeapLongArray(10, index -> index);
+      var doubleArray = RemiStableValue.offHeapDoubleArray(10, index -> index);
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> array.getLong(10)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> array.getLong(-1)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> array.getLong(Long.MAX_VALUE)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> doubleArray.getDouble(10)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.offHeapLongArray(-1, index -> index)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.offHeapDoubleArray(-1, index -> index))
+      );
+    }
+
+    @Test
+    public void offHeapArrayRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var array = RemiStableValue.offHeapLongArray(10, index -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return index;
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> array.getLong(3));
+      assertSame(expected, actual);
+      assertEquals(3, array.getLong(3));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void offHeapArrayThrowsExceptionForCyclicDefinition() {
+      var arrays = new ArrayList<StableArray.OfLong>();
+      arrays.add(RemiStableValue.offHeapLongArray(10, index -> arrays.getFirst().getLong(index) + 1));
+
+      assertThrows(IllegalStateException.class, () -> arrays.getFirst().getLong(5));
+    }
+
+    @Test
+    public void offHeapArrayComputesDependentElementsOfDifferentStripesConcurrently() {
+      // 0 and 64 are in different stripes, 0 depends on 64 that depends on 1 in the stripe of 0
+      var bothStarted = new CountDownLatch(2);
+      var arrays = new ArrayList<StableArray.OfLong>();
+      arrays.add(RemiStableValue.offHeapLongArray(100, index -> {
+        if (index == 0 || index == 64) {
+          bothStarted.countDown();
+          try {
+            bothStarted.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+          return arrays.getFirst().getLong(index == 0 ? 64 : 1) + 1;
+        }
+        return index;
+      }));
+      var array = arrays.getFirst();
+
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+        var thread = Thread.ofPlatform().start(() -> array.getLong(64));
+        assertEquals(3, array.getLong(0));
+        thread.join();
+      });
+      assertEquals(2, array.getLong(64));
+    }
+
+    @Test
+    public void offHeapArrayWaitsForAnElementComputedByAnotherThread() throws InterruptedException {
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var counter = new AtomicInteger();
+      var array = RemiStableValue.offHeapLongArray(10, index -> {
+        counter.incrementAndGet();
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return 42;
+      });
+      var thread = Thread.ofPlatform().start(() -> array.getLong(5));
+      started.await();
+
+      var result = new AtomicLong();
+      var waiter = Thread.ofPlatform().start(() -> result.set(array.getLong(5)));
+      while (waiter.getState() != Thread.State.WAITING) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+      thread.join();
+      waiter.join();
+
+      assertEquals(42, result.get());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void offHeapArrayIsThreadSafe() throws Exception {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var array = RemiStableValue.offHeapLongArray(10_000, index -> {
+        counter.incrementAndGet();
+        return index;
+      });
+
+      ConcurrentTasks.run(threadCount, _ -> {
+        for (var index = 0L; index < 10_000; index += 3) {
+          assertEquals(index, array.getLong(index));
+        }
+      });
+
+      assertEquals((10_000 + 2) / 3, counter.get());
+    }
+  }
+
+  @Nested
+  public class BlockListTests {
+
+    @Test
+    public void blockListLoadsAWholeBlockOnce() {
+      var calls = new ArrayList<String>();
+      var list = RemiStableValue.blockList(10, 4, (start, end) -> {
+        calls.add(start + ".." + end);
+        return IntStream.range(start, end).mapToObj(i -> "" + i).toArray(String[]::new);
+      });
+
+      assertEquals(10, list.size());
+      assertEquals("5", list.get(5));
+      assertEquals("4", list.get(4));
+      assertEquals("7", list.get(7));
+      assertEquals("9", list.get(9));
+      assertEquals("8", list.get(8));
+      assertEquals(List.of("4..8", "8..10"), calls);
+    }
+
+    @Test
+    public void blockListElementsOfALoadedBlockAreVisible() {
+      var list = RemiStableValue.blockList(10, 4, (start, end) -> {
+        return IntStream.range(start, end).boxed().toArray(Integer[]::new);
+      });
+
+      assertEquals(Optional.empty(), list.tryGet(1));
+      assertEquals(2, list.get(2));
+      assertEquals(Optional.of(0), list.tryGet(0));
+      assertEquals(Optional.of(3), list.tryGet(3));
+      assertEquals(Optional.empty(), list.tryGet(4));
+      assertEquals(IntStream.range(0, 10).boxed().toList(), list);
+    }
+
+    @Test
+    public void blockListCopiesTheLoadedArray() {
+      var buffer = new Integer[2];
+      var list = RemiStableValue.blockList(4, 2, (start, end) -> {
+        buffer[0] = start;
+        buffer[1] = start + 1;
+        return buffer;
+      });
+
+      assertEquals(0, list.get(0));
+      assertEquals(3, list.get(3));
+      assertEquals(1, list.get(1));
+    }
+
+    @Test
+    public void blockListChecksArguments() {
+      var list = RemiStableValue.blockList(10, 3, (start, end) -> new Integer[end - start]);
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(10)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1)),
+          () -> assertThrows(NullPointerException.class, () -> list.get(0)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.blockList(-1, 3, (start, end) -> new Integer[0])),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.blockList(10, 0, (start, end) -> new Integer[0])),
+          () -> assertThrows(IllegalStateException.class, () -> RemiStableValue.blockList(10, 3, (start, end) -> new Integer[1]).get(0))
+      );
+    }
+
+    @Test
+    public void blockListCanBeEmpty() {
+      var list = RemiStableValue.blockList(0, 8, (start, end) -> fail());
+
+      assertTrue(list.isEmpty());
+      assertEquals(List.of(), list);
+    }
+
+    @Test
+    public void blockListRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.blockList(10, 5, (start, end) -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return IntStream.range(start, end).boxed().toArray(Integer[]::new);
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> list.get(3));
+      assertSame(expected, actual);
+      assertEquals(Optional.empty(), list.tryGet(0));
+      assertEquals(3, list.get(3));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void blockListThrowsExceptionForCyclicDefinition() {
+      var lists = new ArrayList<List<Integer>>();
+      lists.add(RemiStableValue.blockList(10, 5, (start, end) -> new Integer[] { lists.getFirst().get(start) }));
+
+      assertThrows(IllegalStateException.class, () -> lists.getFirst().get(5));
+    }
+
+    @Test
+    public void blockListIsThreadSafe() throws Exception {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.blockList(10_000, 100, (start, end) -> {
+        counter.incrementAndGet();
+        return IntStream.range(start, end).boxed().toArray(Integer[]::new);
+      });
+
+      ConcurrentTasks.run(threadCount, _ -> {
+        for (var index = 0; index < 10_000; index += 7) {
+          assertEquals(index, list.get(index));
+        }
+      });
+
+      assertEquals(100, counter.get());
+    }
+  }
+
+  @Nested
+  public class BatchMapTests {
+
+    @Test
+    public void batchMapCoalescesConcurrentMisses() throws Exception {
+      var threadCount = 8;
+      var batches = new CopyOnWriteArrayList<Set<Integer>>();
+      var keys = IntStream.range(0, threadCount).boxed().collect(Collectors.toSet());
+      var map = RemiStableValue.batchMap(keys, threadCount, Duration.ofSeconds(10), batch -> {
+        batches.add(Set.copyOf(batch));
+        return batch.stream().collect(Collectors.toMap(k -> k, k -> "" + k));
+      });
+
+      ConcurrentTasks.run(threadCount, key -> assertEquals("" + key, map.get(key)));
+
+      assertEquals(List.of(keys), batches);
+      assertEquals("3", map.get(3));
+      assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void batchMapLimitsTheSizeOfABatch() throws Exception {
+      var threadCount = 10;
+      var batches = new CopyOnWriteArrayList<Set<Integer>>();
+      var keys = IntStream.range(0, threadCount).boxed().collect(Collectors.toSet());
+      var map = RemiStableValue.batchMap(keys, 5, Duration.ofSeconds(10), batch -> {
+        batches.add(Set.copyOf(batch));
+        return batch.stream().collect(Collectors.toMap(k -> k, k -> k * 2));
+      });
+
+      ConcurrentTasks.run(threadCount, key -> assertEquals(key * 2, map.get(key)));
+
+      assertEquals(2, batches.size());
+      assertTrue(batches.stream().allMatch(batch -> batch.size() == 5));
+      assertEquals(keys, batches.stream().flatMap(Set::stream).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void batchMapLoadsAKeyOnlyOnce() {
+      var counter = new AtomicInteger();
+      var map = RemiStableValue.batchMap(Set.of("foo", "bar"), 10, Duration.ZERO, batch -> {
+        counter.addAndGet(batch.size());
+        return batch.stream().collect(Collectors.toMap(k -> k, String::length));
+      });
+
+      assertEquals(Optional.empty(), map.tryGet("foo"));
+      assertEquals(3, map.get("foo"));
+      assertEquals(3, map.get("foo"));
+      assertEquals(Optional.of(3), map.tryGet("foo"));
+      assertNull(map.get("baz"));
+      assertEquals(Map.of("foo", 3, "bar", 3), map);
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void batchMapMissingValueIsRetried() {
+      var counter = new AtomicInteger();
+      var map = RemiStableValue.batchMap(Set.of("foo"), 10, Duration.ZERO, batch -> {
+        return counter.incrementAndGet() == 1 ? Map.of() : Map.of("foo", 42);
+      });
+
+      assertThrows(NullPointerException.class, () -> map.get("foo"));
+      assertEquals(42, map.get("foo"));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void batchMapRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var map = RemiStableValue.batchMap(Set.of("foo"), 10, Duration.ZERO, batch -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return Map.of("foo", 42);
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> map.get("foo"));
+      assertSame(expected, actual);
+      assertEquals(42, map.get("foo"));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void batchMapGetWaitsForTheBatchEvenIfInterrupted() throws InterruptedException {
+      var loading = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+      var map = RemiStableValue.batchMap(Set.of("foo"), 10, Duration.ZERO, batch -> {
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return Map.of("foo", 42);
+      });
+      var loader = Thread.ofPlatform().start(() -> map.get("foo"));
+      loading.await();
+
+      var result = new AtomicReference<Object>();
+      var waiter = Thread.ofPlatform().start(() -> {
+        try {
+          result.set(map.get("foo"));
+          result.set(List.of(result.get(), Thread.currentThread().isInterrupted()));
+        } catch (Throwable e) {
+          result.set(e);
+        }
+      });
+      while (waiter.getState() != Thread.State.WAITING) {
+        Thread.onSpinWait();
+      }
+      waiter.interrupt();
+      Thread.sleep(10);
+      release.countDown();
+      loader.join();
+      waiter.join();
+
+      assertEquals(List.of(42, true), result.get());
+    }
+
+    @Test
+    public void batchMapThrowsExceptionForCyclicDefinition() {
+      var maps = new ArrayList<Map<String, Integer>>();
+      maps.add(RemiStableValue.batchMap(Set.of("foo"), 10, Duration.ZERO, batch -> Map.of("foo", maps.getFirst().get("foo"))));
+
+      assertThrows(IllegalStateException.class, () -> maps.getFirst().get("foo"));
+    }
+
+    @Test
+    public void batchMapChecksArguments() {
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> RemiStableValue.batchMap(null, 10, Duration.ZERO, batch -> Map.of())),
+          () -> assertThrows(NullPointerException.class, () -> RemiStableValue.batchMap(Set.of(), 10, null, batch -> Map.of())),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.batchMap(Set.of(), 0, Duration.ZERO, batch -> Map.of())),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.batchMap(Set.of(), 10, Duration.ofSeconds(-1), batch -> Map.of()))
+      );
+    }
+  }
+
+  @Nested
+  public class RetentionTests {
+    // a stable value and a weak reference to the state captured by its function
+    private record Retained<T>(T stable, WeakReference<Object> captured) {}
+
+    private static Retained<Supplier<String>> supplierCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(RemiStableValue.supplier(() -> "" + payload.length), new WeakReference<>(payload));
+    }
+
+    private static Retained<List<Integer>> listCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(RemiStableValue.list(3, index -> payload.length + index), new WeakReference<>(payload));
+    }
+
+    private static Retained<List<Integer>> blockListCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(
+          RemiStableValue.blockList(4, 2, (start, end) -> new Integer[] { payload.length + start, payload.length + start + 1 }),
+          new WeakReference<>(payload));
+    }
+
+    private static Retained<Map<String, Integer>> mapCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(RemiStableValue.map(Set.of("foo", "bar"), key -> payload.length), new WeakReference<>(payload));
+    }
+
+    private static Retained<Map<String, Integer>> batchMapCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(
+          RemiStableValue.batchMap(Set.of("foo", "bar"), 10, Duration.ZERO,
+              keys -> keys.stream().collect(Collectors.toMap(k -> k, k -> payload.length))),
+          new WeakReference<>(payload));
+    }
+
+    private static Retained<StableTable<Integer>> tableCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(RemiStableValue.table(1, 2, (row, column) -> payload.length + column), new WeakReference<>(payload));
+    }
+
+    private static Retained<StableArray.OfLong> offHeapLongArrayCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(RemiStableValue.offHeapLongArray(2, index -> payload.length + index), new WeakReference<>(payload));
+    }
+
+    private static Retained<StableList<Integer>> recursiveListCapturing() {
+      var payload = new byte[1_000_000];
+      return new Retained<>(
+          RemiStableValue.recursiveList(3, (list, index) -> index == 0 ? payload.length : list.get(index - 1) + 1),
+          new WeakReference<>(payload));
+    }
+
+    private static boolean isCollected(WeakReference<?> reference) throws InterruptedException {
+      for (var i = 0; i < 50 && reference.get() != null; i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      return reference.get() == null;
+    }
+
+    @Test
+    public void supplierReleasesTheOriginalSupplier() throws InterruptedException {
+      var retained = supplierCapturing();
+      var supplier = retained.stable();
+
+      assertEquals("1000000", supplier.get());
+      assertTrue(isCollected(retained.captured()));
+      assertEquals("1000000", supplier.get());
+    }
+
+    @Test
+    public void listReleasesTheMapperOnceAllElementsAreComputed() throws InterruptedException {
+      var retained = listCapturing();
+      var list = retained.stable();
+
+      assertEquals(1_000_000, list.get(0));
+      assertEquals(1_000_002, list.get(2));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_001, list.get(1));
+      assertTrue(isCollected(retained.captured()));
+      assertEquals(List.of(1_000_000, 1_000_001, 1_000_002), list);
+    }
+
+    @Test
+    public void blockListReleasesTheLoaderOnceAllBlocksAreLoaded() throws InterruptedException {
+      var retained = blockListCapturing();
+      var list = retained.stable();
+
+      assertEquals(1_000_001, list.get(1));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_002, list.get(2));
+      assertTrue(isCollected(retained.captured()));
+      assertEquals(List.of(1_000_000, 1_000_001, 1_000_002, 1_000_003), list);
+    }
+
+    @Test
+    public void mapReleasesTheMapperOnceAllValuesAreComputed() throws InterruptedException {
+      var retained = mapCapturing();
+      var map = retained.stable();
+
+      assertEquals(1_000_000, map.get("foo"));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_000, map.get("bar"));
+      assertTrue(isCollected(retained.captured()));
+      assertEquals(Map.of("foo", 1_000_000, "bar", 1_000_000), map);
+    }
+
+    @Test
+    public void tableReleasesTheMapperOnceAllCellsAreComputed() throws InterruptedException {
+      var retained = tableCapturing();
+      var table = retained.stable();
+
+      assertEquals(1_000_001, table.get(0, 1));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_000, table.get(0, 0));
+      assertTrue(isCollected(retained.captured()));
+      assertEquals(1_000_001, table.get(0, 1));
+    }
+
+    @Test
+    public void offHeapArrayReleasesTheMapperOnceAllElementsAreComputed() throws InterruptedException {
+      var retained = offHeapLongArrayCapturing();
+      var array = retained.stable();
+
+      assertEquals(1_000_000L, array.getLong(0));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_001L, array.getLong(1));
+      assertTrue(isCollected(retained.captured()));
+      assertEquals(1_000_000L, array.getLong(0));
+    }
+
+    @Test
+    public void recursiveListReleasesTheMapperOnceAllElementsAreComputed() throws InterruptedException {
+      var retained = recursiveListCapturing();
+      var list = retained.stable();
+
+      assertEquals(1_000_001, list.get(1));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_002, list.get(2));
+      assertTrue(isCollected(retained.captured()));
+      assertEquals(List.of(1_000_000, 1_000_001, 1_000_002), list);
+    }
+
+    @Test
+    public void batchMapReleasesTheLoaderOnceAllValuesAreLoaded() throws InterruptedException {
+      var retained = batchMapCapturing();
+      var map = retained.stable();
+
+      assertEquals(1_000_000, map.get("foo"));
+      assertFalse(isCollected(retained.captured()));
+      assertEquals(1_000_000, map.get("bar"));
+      assertTrue(isCollected(retained.captured()));
+    }
+  }
+
+  @Nested
+  public class PerClassTests {
+
+    @Test
+    public void perClassComputesAValueOncePerClass() {
+      var counter = new AtomicInteger();
+      var function = RemiStableValue.perClass(type -> {
+        counter.incrementAndGet();
+        return type.getSimpleName();
+      });
+
+      assertEquals("String", function.apply(String.class));
+      assertEquals("Integer", function.apply(Integer.class));
+      assertEquals("String", function.apply(String.class));
+      assertEquals("Integer", function.apply(Integer.class));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void perClassWithMoreClassesThanTheInlineCache() {
+      var counter = new AtomicInteger();
+      var function = RemiStableValue.perClass(type -> {
+        counter.incrementAndGet();
+        return type.getName();
+      });
+      var types = List.of(String.class, Integer.class, Long.class, Double.class, Float.class, Short.class,
+          Byte.class, Character.class, Boolean.class, Object.class, List.class, Map.class, int[].class);
+
+      for (var i = 0; i < 3; i++) {
+        for (var type : types) {
+          assertEquals(type.getName(), function.apply(type));
+        }
+      }
+      assertEquals(types.size(), counter.get());
+    }
+
+    @Test
+    public void perClassWithAHiddenClass() throws IllegalAccessException, IOException {
+      var bytes = RemiStableValueTest.class.getResourceAsStream("RemiStableValueTest$PerClassTests.class").readAllBytes();
+      var hiddenClass = MethodHandles.lookup().defineHiddenClass(bytes, false).lookupClass();
+      var function = RemiStableValue.perClass(Class::isHidden);
+
+      assertTrue(function.apply(hiddenClass));
+      assertTrue(function.apply(hiddenClass));
+      assertFalse(function.apply(String.class));
+    }
+
+    @Test
+    public void perClassDoesNotPreventClassUnloading() throws IllegalAccessException, IOException, InterruptedException {
+      var function = RemiStableValue.perClass(Class::getModifiers);
+      var bytes = RemiStableValueTest.class.getResourceAsStream("RemiStableValueTest$PerClassTests.class").readAllBytes();
+      var reference = new WeakReference<Class<?>>(defineAndApply(bytes, function));
+
+      for (var i = 0; i < 50 && reference.get() != null; i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      assertNull(reference.get());
+    }
+
+    private static Class<?> defineAndApply(byte[] bytes, Function<Class<?>, Integer> function) throws IllegalAccessException {
+      var hiddenClass = MethodHandles.lookup().defineHiddenClass(bytes, false).lookupClass();
+      function.apply(hiddenClass);
+      return hiddenClass;
+    }
+
+    @Test
+    public void perClassRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var function = RemiStableValue.perClass(type -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return type.getSimpleName();
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> function.apply(String.class));
+      assertSame(expected, actual);
+      assertEquals("String", function.apply(String.class));
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void perClassDoesNotAllowNull() {
+      var function = RemiStableValue.perClass(type -> null);
+
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> function.apply(null)),
+          () -> assertThrows(NullPointerException.class, () -> function.apply(String.class)),
+          () -> assertThrows(NullPointerException.class, () -> RemiStableValue.perClass(null))
+      );
+    }
+
+    @Test
+    public void perClassThrowsExceptionForCyclicDefinition() {
+      var functions = new ArrayList<Function<Class<?>, String>>();
+      functions.add(RemiStableValue.perClass(type -> functions.getFirst().apply(type)));
+
+      assertThrows(IllegalStateException.class, () -> functions.getFirst().apply(String.class));
+    }
+
+    @Test
+    public void perClassIsThreadSafe() throws Exception {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var function = RemiStableValue.perClass(type -> {
+        counter.incrementAndGet();
+        return type.getName();
+      });
+      var types = List.of(String.class, Integer.class, Long.class, Double.class, Object.class);
+
+      ConcurrentTasks.run(threadCount, _ -> {
+        for (var j = 0; j < 1_000; j++) {
+          var type = types.get(j % types.size());
+          assertEquals(type.getName(), function.apply(type));
+        }
+      });
+
+      assertEquals(types.size(), counter.get());
+    }
+  }
+
+  @Nested
+  public class DerivedSupplierTests {
+
+    @Test
+    public void mapComputesOnDemandAndOnlyOnce() {
+      var sourceCounter = new AtomicInteger();
+      var mapperCounter = new AtomicInteger();
+      var source = RemiStableValue.supplier(() -> {
+        sourceCounter.incrementAndGet();
+        return "42";
+      });
+      var derived = source.map(value -> {
+        mapperCounter.incrementAndGet();
+        return Integer.parseInt(value);
+      });
+
+      assertEquals(0, sourceCounter.get());
+      assertEquals(Optional.empty(), derived.tryGet());
+      assertEquals(42, derived.get());
+      assertEquals(42, derived.get());
+      assertEquals(Optional.of(42), derived.tryGet());
+      assertEquals("42", source.get());
+      assertEquals(1, sourceCounter.get());
+      assertEquals(1, mapperCounter.get());
+    }
+
+    @Test
+    public void deepChainOfMaps() {
+      var supplier = RemiStableValue.supplier(() -> 0);
+      for (var i = 0; i < 100; i++) {
+        supplier = supplier.map(value -> value + 1);
+      }
+
+      assertEquals(100, supplier.get());
+    }
+
+    @Test
+    public void zipCombinesTwoSuppliers() {
+      var host = RemiStableValue.supplier(() -> "localhost");
+      var port = RemiStableValue.supplier(() -> 8080);
+      var address = host.zip(port, (h, p) -> h + ":" + p);
+
+      assertEquals("localhost:8080", address.get());
+      assertEquals(Optional.of("localhost"), host.tryGet());
+      assertEquals(Optional.of(8080), port.tryGet());
+    }
+
+    @Test
+    public void flatMapSelectsASupplier() {
+      var useCache = RemiStableValue.supplier(() -> true);
+      var cached = RemiStableValue.supplier(() -> "cached");
+      var remote = RemiStableValue.supplier(() -> "remote");
+      var value = useCache.flatMap(b -> b ? cached : remote);
+
+      assertEquals("cached", value.get());
+      assertEquals(Optional.empty(), remote.tryGet());
+    }
+
+    @Test
+    public void derivedSuppliersRelayExceptionsAndRetry() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var source = RemiStableValue.supplier(() -> {
+        if (counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return 21;
+      });
+      var derived = source.map(value -> value * 2);
+
+      var actual = assertThrows(RuntimeException.class, derived::get);
+      assertSame(expected, actual);
+      assertEquals(42, derived.get());
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void derivedSuppliersDoNotAllowNull() {
+      var source = RemiStableValue.supplier(() -> "value");
+
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> source.map(null)),
+          () -> assertThrows(NullPointerException.class, () -> source.zip(null, (a, b) -> a)),
+          () -> assertThrows(NullPointerException.class, () -> source.zip(source, null)),
+          () -> assertThrows(NullPointerException.class, () -> source.flatMap(null)),
+          () -> assertThrows(NullPointerException.class, () -> source.map(value -> null).get()),
+          () -> assertThrows(NullPointerException.class, () -> source.flatMap(value -> null).get())
+      );
+    }
+  }
+
+  @Nested
+  public class RecursiveListTests {
+
+    @Test
+    public void recursiveListComputesFibonacci() {
+      var fibonacci = RemiStableValue.<Long>recursiveList(50, (list, i) -> i < 2 ? i : list.get(i - 1) + list.get(i - 2));
+
+      assertEquals(7_778_742_049L, fibonacci.get(49));
+      assertEquals(55L, fibonacci.get(10));
+      assertEquals(Optional.of(832_040L), fibonacci.tryGet(30));
+    }
+
+    @Test
+    public void recursiveListWithALongChainOfDependencies() {
+      var list = RemiStableValue.<Long>recursiveList(1_000_000, (self, i) -> i == 0 ? 0L : self.get(i - 1) + i);
+
+      assertEquals(499_999_500_000L, list.get(999_999));
+      assertEquals(Optional.of(1L), list.tryGet(1));
+    }
+
+    @Test
+    public void recursiveListReturnsNormallyOncePerIndex() {
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.<Integer>recursiveList(10_000, (self, i) -> {
+        var value = i == 0 ? 0 : self.get(i - 1) + 1;
+        counter.incrementAndGet();
+        return value;
+      });
+
+      assertEquals(9_999, list.get(9_999));
+      assertEquals(IntStream.range(0, 10_000).boxed().toList(), list);
+      assertEquals(10_000, counter.get());
+    }
+
+    @Test
+    public void recursiveListChecksArguments() {
+      var list = RemiStableValue.<Integer>recursiveList(10, (self, i) -> i);
+
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(10)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1)),
+          () -> assertThrows(NullPointerException.class, () -> RemiStableValue.recursiveList(10, (self, i) -> null).get(0)),
+          () -> assertThrows(IllegalArgumentException.class, () -> RemiStableValue.<Integer>recursiveList(-1, (self, i) -> i))
+      );
+    }
+
+    @Test
+    public void recursiveListRelaysExceptionsAndRetries() {
+      var expected = new RuntimeException("Expected exception");
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.<Integer>recursiveList(1_000, (self, i) -> {
+        var value = i == 0 ? 0 : self.get(i - 1) + 1;
+        if (i == 500 && counter.incrementAndGet() == 1) {
+          throw expected;
+        }
+        return value;
+      });
+
+      var actual = assertThrows(RuntimeException.class, () -> list.get(999));
+      assertSame(expected, actual);
+      assertEquals(Optional.of(499), list.tryGet(499));
+      assertEquals(Optional.empty(), list.tryGet(500));
+      assertEquals(999, list.get(999));
+    }
+
+    @Test
+    public void recursiveListThrowsExceptionForCyclicDefinition() {
+      var list = RemiStableValue.<Integer>recursiveList(1_000, (self, i) -> self.get((i + 1) % 1_000));
+
+      assertThrows(IllegalStateException.class, () -> list.get(0));
+      assertThrows(IllegalStateException.class, () -> list.get(0));
+    }
+
+    @Test
+    public void recursiveListThrowsExceptionForACycleLongerThanTheJavaStack() {
+      var list = RemiStableValue.<Integer>recursiveList(2_000, (self, i) -> self.get(i == 1_000 ? 1 : i + 1));
+
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+        assertThrows(IllegalStateException.class, () -> list.get(0));
+        assertThrows(IllegalStateException.class, () -> list.get(500));
+      });
+    }
+
+    @Test
+    public void recursiveListIsThreadSafe() throws Exception {
+      var threadCount = 10;
+      var counter = new AtomicInteger();
+      var list = RemiStableValue.<Integer>recursiveList(10_000, (self, i) -> {
+        var value = i == 0 ? 0 : self.get(i - 1) + 1;
+        counter.incrementAndGet();
+        return value;
+      });
+
+      ConcurrentTasks.run(threadCount, thread -> {
+        var start = thread * 1_000;
+        for (var index = start + 999; index >= start; index--) {
+          assertEquals(index, list.get(index));
+        }
+      });
+
+      assertEquals(10_000, counter.get());
+    }
+  }
+}
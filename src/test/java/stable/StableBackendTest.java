@@ -0,0 +1,276 @@
+package stable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import stablevalue.StableBackend;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class StableBackendTest {
+  // the semantics shared by all the backends
+  abstract static class BackendTests {
+    abstract StableBackend backend();
+
+    @Test
+    public void supplierIsComputedOnlyOnce() {
+      var counter = new AtomicInteger();
+      var supplier = backend().supplier(() -> "hello" + counter.incrementAndGet());
+      assertEquals("hello1", supplier.get());
+      assertEquals("hello1", supplier.get());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void supplierRelaysTheExceptionAndRetries() {
+      var counter = new AtomicInteger();
+      var supplier = backend().supplier(() -> {
+        if (counter.incrementAndGet() == 1) {
+          throw new IllegalArgumentException("oops");
+        }
+        return "hello";
+      });
+      assertThrows(IllegalArgumentException.class, supplier::get);
+      assertEquals("hello", supplier.get());
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void supplierCyclicDefinition() {
+      var box = new Object() { Supplier<String> supplier; };
+      box.supplier = backend().supplier(() -> box.supplier.get());
+      assertThrows(IllegalStateException.class, box.supplier::get);
+    }
+
+    @Test
+    public void supplierConcurrentAccess() throws Exception {
+      var counter = new AtomicInteger();
+      var supplier = backend().supplier(() -> "hello" + counter.incrementAndGet());
+      ConcurrentTasks.run(8, _ -> assertEquals("hello1", supplier.get()));
+      assertEquals("hello1", supplier.get());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void listIsComputedOnlyOnce() {
+      var counter = new AtomicInteger();
+      var list = backend().list(4, i -> {
+        counter.incrementAndGet();
+        return i * 10;
+      });
+      assertEquals(4, list.size());
+      assertEquals(20, list.get(2));
+      assertEquals(20, list.get(2));
+      assertEquals(1, counter.get());
+      assertEquals(List.of(0, 10, 20, 30), list);
+      assertEquals(4, counter.get());
+    }
+
+    @Test
+    public void listOutOfBounds() {
+      var list = backend().list(3, i -> i);
+      assertAll(
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(3))
+      );
+    }
+
+    @Test
+    public void listIsUnmodifiable() {
+      var list = backend().list(3, i -> i);
+      assertAll(
+          () -> assertThrows(UnsupportedOperationException.class, () -> list.set(0, 42)),
+          () -> assertThrows(UnsupportedOperationException.class, () -> list.add(42))
+      );
+    }
+
+    @Test
+    public void listNegativeSize() {
+      assertThrows(IllegalArgumentException.class, () -> backend().list(-1, i -> i));
+    }
+
+    @Test
+    public void mapIsComputedOnlyOnce() {
+      var counter = new AtomicInteger();
+      var map = backend().map(Set.of("foo", "bar"), key -> {
+        counter.incrementAndGet();
+        return key.length();
+      });
+      assertEquals(2, map.size());
+      assertEquals(3, map.get("foo"));
+      assertEquals(3, map.get("foo"));
+      assertEquals(1, counter.get());
+      assertEquals(Map.of("foo", 3, "bar", 3), map);
+      assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void mapUnknownKey() {
+      var map = backend().map(Set.of("foo"), key -> fail());
+      assertAll(
+          () -> assertNull(map.get("baz")),
+          () -> assertFalse(map.containsKey("baz")),
+          () -> assertTrue(map.containsKey("foo"))
+      );
+    }
+
+    @Test
+    public void mapRejectsNullKeys() {
+      var map = backend().map(Set.of("foo"), String::length);
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> map.get(null)),
+          () -> assertThrows(NullPointerException.class, () -> map.containsKey(null))
+      );
+    }
+
+    @Test
+    public void mapIsUnmodifiable() {
+      var map = backend().map(Set.of("foo"), String::length);
+      assertThrows(UnsupportedOperationException.class, () -> map.put("bar", 3));
+    }
+
+    @Test
+    public void nullValuesAreRejected() {
+      var backend = backend();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> backend.supplier(() -> null).get()),
+          () -> assertThrows(NullPointerException.class, () -> backend.list(1, i -> null).get(0)),
+          () -> assertThrows(NullPointerException.class, () -> backend.map(Set.of("foo"), k -> null).get("foo"))
+      );
+    }
+
+    @Test
+    public void listConcurrentAccess() throws Exception {
+      var counter = new AtomicInteger();
+      var list = backend().list(100, i -> {
+        counter.incrementAndGet();
+        return i;
+      });
+      ConcurrentTasks.run(8, _ -> assertEquals(IntStream.range(0, 100).boxed().toList(), List.copyOf(list)));
+      assertEquals(IntStream.range(0, 100).boxed().toList(), list);
+      assertEquals(100, counter.get());
+    }
+  }
+
+  @Nested
+  public class CallSiteTests extends BackendTests {
+    @Override
+    StableBackend backend() {
+      return StableBackend.callSite();
+    }
+  }
+
+  @Nested
+  public class VarHandleTests extends BackendTests {
+    @Override
+    StableBackend backend() {
+      return StableBackend.varHandle();
+    }
+  }
+
+  @Nested
+  public class JdkTests extends BackendTests {
+    // checks the preview API rather than the JDK version, a later JDK may rename it
+    private static boolean hasStableValue() {
+      try {
+        Class.forName("java.lang.StableValue");
+        return true;
+      } catch (ClassNotFoundException e) {
+        return false;
+      }
+    }
+
+    @BeforeEach
+    public void requiresStableValue() {
+      assumeTrue(hasStableValue(), "java.lang.StableValue is not available");
+    }
+
+    @Override
+    StableBackend backend() {
+      return StableBackend.jdk();
+    }
+  }
+
+  @Nested
+  public class SelectionTests {
+    static final class StaticHolder {
+      static final StableBackend BACKEND = StableBackend.current();
+    }
+
+    private static StableBackend withProperty(String value, Supplier<StableBackend> supplier) {
+      var old = System.getProperty(StableBackend.PROPERTY);
+      System.setProperty(StableBackend.PROPERTY, value);
+      try {
+        return supplier.get();
+      } finally {
+        if (old == null) {
+          System.clearProperty(StableBackend.PROPERTY);
+        } else {
+          System.setProperty(StableBackend.PROPERTY, old);
+        }
+      }
+    }
+
+    @Test
+    public void ofName() {
+      assertAll(
+          () -> assertSame(StableBackend.callSite(), StableBackend.of("callsite")),
+          () -> assertSame(StableBackend.varHandle(), StableBackend.of("varhandle")),
+          () -> assertSame(StableBackend.jdk(), StableBackend.of("jdk")),
+          () -> assertEquals("callsite", StableBackend.callSite().name()),
+          () -> assertEquals("varhandle", StableBackend.varHandle().name()),
+          () -> assertEquals("jdk", StableBackend.jdk().name())
+      );
+    }
+
+    @Test
+    public void ofUnknownName() {
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> StableBackend.of("unknown")),
+          () -> assertThrows(NullPointerException.class, () -> StableBackend.of(null))
+      );
+    }
+
+    @Test
+    public void selectByUsage() {
+      assertAll(
+          () -> assertSame(StableBackend.callSite(),
+              withProperty("auto", () -> StableBackend.select(StableBackend.Usage.STATIC))),
+          () -> assertSame(StableBackend.varHandle(),
+              withProperty("auto", () -> StableBackend.select(StableBackend.Usage.INSTANCE)))
+      );
+    }
+
+    @Test
+    public void selectByProperty() {
+      assertAll(
+          () -> assertSame(StableBackend.varHandle(),
+              withProperty("varhandle", () -> StableBackend.select(StableBackend.Usage.STATIC))),
+          () -> assertSame(StableBackend.callSite(),
+              withProperty("callsite", () -> StableBackend.select(StableBackend.Usage.INSTANCE))),
+          () -> assertSame(StableBackend.jdk(),
+              withProperty("jdk", () -> StableBackend.current())),
+          () -> assertThrows(IllegalArgumentException.class,
+              () -> withProperty("unknown", () -> StableBackend.select(StableBackend.Usage.STATIC)))
+      );
+    }
+
+    @Test
+    public void currentDetectsTheStaticInitializer() {
+      assumeTrue(System.getProperty(StableBackend.PROPERTY) == null);
+      assertAll(
+          () -> assertSame(StableBackend.callSite(), StaticHolder.BACKEND),
+          () -> assertSame(StableBackend.varHandle(), StableBackend.current())
+      );
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package stable;
+
+import org.junit.jupiter.api.Test;
+
+import stablevalue.StableFieldUpdater;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StableFieldUpdaterTest {
+  static final class Payload {
+    private final String text;
+    private String upperCase;
+    private final String finalField = "";
+    private int primitiveField;
+
+    Payload(String text) {
+      this.text = text;
+    }
+  }
+
+  private static StableFieldUpdater<Payload, String> updater(Function<? super Payload, String> computer) {
+    return StableFieldUpdater.of(MethodHandles.lookup(), Payload.class, "upperCase", String.class, computer);
+  }
+
+  @Test
+  public void fieldIsComputedOnlyOnce() {
+    var counter = new AtomicInteger();
+    var updater = updater(payload -> {
+      counter.incrementAndGet();
+      return payload.text.toUpperCase();
+    });
+    var payload = new Payload("hello");
+
+    assertEquals("HELLO", updater.get(payload));
+    assertEquals("HELLO", updater.get(payload));
+    assertEquals("HELLO", payload.upperCase);
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void fieldIsComputedPerInstance() {
+    var updater = updater(payload -> payload.text.toUpperCase());
+
+    assertAll(
+        () -> assertEquals("FOO", updater.get(new Payload("foo"))),
+        () -> assertEquals("BAR", updater.get(new Payload("bar")))
+    );
+  }
+
+  @Test
+  public void updaterRelaysExceptions() {
+    var expected = new RuntimeException("Expected exception");
+    var updater = updater(_ -> {
+      throw expected;
+    });
+    var payload = new Payload("hello");
+
+    var actual = assertThrows(RuntimeException.class, () -> updater.get(payload));
+    assertSame(expected, actual);
+    assertNull(payload.upperCase);
+  }
+
+  @Test
+  public void updaterRejectsNullValues() {
+    var updater = updater(_ -> null);
+
+    assertThrows(NullPointerException.class, () -> updater.get(new Payload("hello")));
+  }
+
+  @Test
+  public void updaterThrowsExceptionForCyclicDefinition() {
+    var updater = new Object() {
+      final StableFieldUpdater<Payload, String> updater = updater(payload -> this.updater.get(payload));
+    }.updater;
+
+    assertThrows(IllegalStateException.class, () -> updater.get(new Payload("hello")));
+  }
+
+  @Test
+  public void updaterAllowsNestedComputationOfAnotherInstance() {
+    var other = new Payload("other");
+    var updater = new Object() {
+      final StableFieldUpdater<Payload, String> updater =
+          updater(payload -> payload == other ? "OTHER" : this.updater.get(other) + payload.text);
+    }.updater;
+
+    assertEquals("OTHERhello", updater.get(new Payload("hello")));
+  }
+
+  @Test
+  public void updaterRejectsInvalidFields() {
+    var lookup = MethodHandles.lookup();
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> StableFieldUpdater.of(lookup, Payload.class, "unknown", String.class, _ -> "")),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> StableFieldUpdater.of(lookup, Payload.class, "finalField", String.class, _ -> "")),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> StableFieldUpdater.of(lookup, Payload.class, "primitiveField", int.class, _ -> 0)),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> StableFieldUpdater.of(lookup, Payload.class, "text", Integer.class, _ -> 0))
+    );
+  }
+
+  @Test
+  public void updaterIsThreadSafe() {
+    var counter = new AtomicInteger();
+    var updater = updater(payload -> {
+      try {
+        Thread.sleep(100); // Simulate work
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+      return payload.text + counter.incrementAndGet();
+    });
+    var payload = new Payload("hello");
+
+    assertTimeoutPreemptively(Duration.ofSeconds(10),
+        () -> ConcurrentTasks.run(10, _ -> assertEquals("hello1", updater.get(payload))));
+    assertEquals(1, counter.get());
+  }
+}
@@ -0,0 +1,245 @@
+package stable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import stablevalue.StableSnapshot;
+
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StableSnapshotTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  public void supplierIsSeededFromSavedSnapshot() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var counter = new AtomicInteger();
+
+    var snapshot = StableSnapshot.open(path, 1);
+    var supplier = snapshot.supplier("value", String.class, () -> "value " + counter.incrementAndGet());
+    assertEquals("value 1", supplier.get());
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    var supplier2 = snapshot2.supplier("value", String.class, () -> "value " + counter.incrementAndGet());
+    assertEquals("value 1", supplier2.get());
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void mapIsSeededFromSavedSnapshot() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var counter = new AtomicInteger();
+
+    var snapshot = StableSnapshot.open(path, 1);
+    var map = snapshot.map("lengths", Set.of("a", "bb", "ccc"), Integer.class, key -> {
+      counter.incrementAndGet();
+      return key.length();
+    });
+    assertEquals(2, map.get("bb"));
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    var map2 = snapshot2.map("lengths", Set.of("a", "bb", "ccc"), Integer.class, key -> {
+      counter.incrementAndGet();
+      return key.length();
+    });
+    assertEquals(2, map2.get("bb"));
+    assertEquals(1, counter.get());
+    assertEquals(3, map2.get("ccc"));
+    assertEquals(2, counter.get());
+  }
+
+  @Test
+  public void staleSnapshotIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var counter = new AtomicInteger();
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", Integer.class, counter::incrementAndGet).get();
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 2);
+    assertEquals(2, snapshot2.supplier("value", Integer.class, counter::incrementAndGet).get());
+  }
+
+  @Test
+  public void corruptedSnapshotIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var counter = new AtomicInteger();
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", Integer.class, counter::incrementAndGet).get();
+    snapshot.save();
+
+    var data = Files.readAllBytes(path);
+    data[data.length - 10] ^= 0x55;
+    Files.write(path, data);
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    assertEquals(2, snapshot2.supplier("value", Integer.class, counter::incrementAndGet).get());
+  }
+
+  @Test
+  public void truncatedSnapshotIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", String.class, () -> "value").get();
+    snapshot.save();
+
+    var data = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(data, data.length / 2));
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    assertEquals("other", snapshot2.supplier("value", String.class, () -> "other").get());
+  }
+
+  @Test
+  public void snapshotWithInvalidPayloadLengthIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", String.class, () -> "value").get();
+    snapshot.save();
+
+    var data = Files.readAllBytes(path);
+    ByteBuffer.wrap(data).putInt(12, Integer.MAX_VALUE);
+    Files.write(path, data);
+    assertEquals("other", StableSnapshot.open(path, 1).supplier("value", String.class, () -> "other").get());
+
+    ByteBuffer.wrap(data).putInt(12, -1);
+    Files.write(path, data);
+    assertEquals("other", StableSnapshot.open(path, 1).supplier("value", String.class, () -> "other").get());
+  }
+
+  @Test
+  public void snapshotWithClassRejectedByTheFilterIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", List.class, () -> new ArrayList<>(List.of("value"))).get();
+    snapshot.save();
+
+    var allowed = StableSnapshot.open(path, 1, ObjectInputFilter.Config.createFilter("java.base/*;!*"));
+    assertEquals(List.of("value"), allowed.supplier("value", List.class, () -> List.of("other")).get());
+
+    var rejected = StableSnapshot.open(path, 1, ObjectInputFilter.Config.createFilter("!java.util.ArrayList"));
+    assertEquals(List.of("other"), rejected.supplier("value", List.class, () -> List.of("other")).get());
+  }
+
+  @Test
+  public void snapshotWithTooDeepObjectGraphIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", Object.class, () -> {
+      Object value = "leaf";
+      for(var i = 0; i < 100; i++) {
+        value = new Object[] { value };
+      }
+      return value;
+    }).get();
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    assertEquals("other", snapshot2.supplier("value", String.class, () -> "other").get());
+  }
+
+  @Test
+  public void uncomputedSeedsAreSavedAgain() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", String.class, () -> "value").get();
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    snapshot2.supplier("value", String.class, () -> "other");  // not accessed
+    snapshot2.save();
+
+    var snapshot3 = StableSnapshot.open(path, 1);
+    assertEquals("value", snapshot3.supplier("value", String.class, () -> "other").get());
+  }
+
+  @Test
+  public void nameCanNotBeRegisteredTwice() throws IOException {
+    var snapshot = StableSnapshot.open(directory.resolve("snapshot.bin"), 1);
+    snapshot.supplier("value", String.class, () -> "value");
+
+    assertThrows(IllegalStateException.class, () -> snapshot.supplier("value", String.class, () -> "value"));
+  }
+
+  @Test
+  public void nonSerializableValuesAreNotSaved() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var snapshot = StableSnapshot.open(path, 1);
+    var value = new Object();
+    assertSame(value, snapshot.supplier("value", Object.class, () -> value).get());
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    var value2 = new Object();
+    assertSame(value2, snapshot2.supplier("value", Object.class, () -> value2).get());
+  }
+
+  @Test
+  public void seedOfAnotherTypeIsIgnored() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", String.class, () -> "value").get();
+    snapshot.map("lengths", Set.of("a", "bb"), Integer.class, String::length).get("bb");
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    assertEquals(42, snapshot2.supplier("value", Integer.class, () -> 42).get());
+    assertEquals("bb!", snapshot2.map("lengths", Set.of("a", "bb"), String.class, key -> key + "!").get("bb"));
+  }
+
+  private static final class FailingValue implements Serializable {
+    @Serial
+    private void readObject(ObjectInputStream input) {
+      throw new IllegalStateException("can not be read");
+    }
+  }
+
+  @Test
+  public void snapshotWithAFailingReadObjectIsRejected() throws IOException {
+    var path = directory.resolve("snapshot.bin");
+    var snapshot = StableSnapshot.open(path, 1);
+    snapshot.supplier("value", Object.class, FailingValue::new).get();
+    snapshot.save();
+
+    var snapshot2 = StableSnapshot.open(path, 1);
+    assertEquals("other", snapshot2.supplier("value", Object.class, () -> "other").get());
+  }
+
+  @Test
+  public void supplierAndMapAreStable() throws IOException {
+    var snapshot = StableSnapshot.open(directory.resolve("snapshot.bin"), 1);
+    var supplier = snapshot.supplier("value", String.class, () -> "value");
+    var map = snapshot.map("lengths", Set.of("a", "bb"), Integer.class, String::length);
+    assertTrue(supplier.tryGet().isEmpty());
+    assertEquals("value", supplier.get());
+    assertEquals(Optional.of("value"), supplier.tryGet());
+    assertTrue(map.tryGet("a").isEmpty());
+    assertEquals(1, map.get("a"));
+    assertEquals(Optional.of(1), map.tryGet("a"));
+  }
+}